@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.benchmarks;
+
+import com.google.common.io.ByteStreams;
+import com.jeffplaisance.util.fingertree.bytestring.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ByteString built from 4096 byte chunks against a byte[] of the same contents, byte[] concat and substring copy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteStringBenchmark {
+
+    private static final int CHUNK_SIZE = 4096;
+    private static final int INDEX_COUNT = 1024;
+    private static final OutputStream NULL_OUTPUT = ByteStreams.nullOutputStream();
+
+    @Param({"4096", "65536", "1048576", "16777216"})
+    public int length;
+
+    private ByteString byteString;
+    private byte[] bytes;
+    private int[] indices;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final Random r = new Random(0);
+        bytes = new byte[length];
+        r.nextBytes(bytes);
+        ByteString byteString = ByteString.empty();
+        for (int i = 0; i < length; i += CHUNK_SIZE) {
+            byteString = byteString.concat(ByteString.fromBytes(bytes, i, Math.min(CHUNK_SIZE, length-i)));
+        }
+        this.byteString = byteString;
+        indices = new int[INDEX_COUNT];
+        for (int i = 0; i < INDEX_COUNT; i++) {
+            indices[i] = r.nextInt(length);
+        }
+    }
+
+    private int nextIndex() {
+        return indices[next++ & (INDEX_COUNT-1)];
+    }
+
+    @Benchmark
+    public ByteString byteStringConcat() {
+        return byteString.concat(byteString);
+    }
+
+    @Benchmark
+    public byte[] byteArrayConcat() {
+        final byte[] ret = Arrays.copyOf(bytes, length*2);
+        System.arraycopy(bytes, 0, ret, length, length);
+        return ret;
+    }
+
+    @Benchmark
+    public ByteString byteStringSubstring() {
+        final int a = nextIndex();
+        final int b = nextIndex();
+        return byteString.substring(Math.min(a, b), Math.max(a, b));
+    }
+
+    @Benchmark
+    public byte[] byteArraySubstring() {
+        final int a = nextIndex();
+        final int b = nextIndex();
+        return Arrays.copyOfRange(bytes, Math.min(a, b), Math.max(a, b));
+    }
+
+    @Benchmark
+    public byte byteStringGetByte() {
+        return byteString.getByte(nextIndex());
+    }
+
+    @Benchmark
+    public byte byteArrayGet() {
+        return bytes[nextIndex()];
+    }
+
+    @Benchmark
+    public void byteStringWriteTo() throws IOException {
+        byteString.writeTo(NULL_OUTPUT);
+    }
+
+    @Benchmark
+    public void byteArrayWriteTo() throws IOException {
+        NULL_OUTPUT.write(bytes, 0, length);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.benchmarks;
+
+import com.jeffplaisance.util.Pair;
+import com.jeffplaisance.util.fingertree.FingerTree;
+import com.jeffplaisance.util.fingertree.FingerTrees;
+import com.jeffplaisance.util.fingertree.IntMeasured;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * persistent operations on a count measured tree against the same operations on ArrayDeque and ArrayList. the
+ * mutable collections are restored after each operation so every invocation sees a collection of the same size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FingerTreeBenchmark {
+
+    static final IntMeasured<Object> COUNT_MEASURED = new IntMeasured<Object>() {
+        @Override
+        public int sumInt(int a, int b) {
+            return a+b;
+        }
+
+        @Override
+        public int measureInt(Object a) {
+            return 1;
+        }
+
+        @Override
+        public int zeroInt() {
+            return 0;
+        }
+    };
+
+    @Param({"16", "1024", "65536", "1048576"})
+    public int size;
+
+    private FingerTree<Integer, Integer> tree;
+    private ArrayDeque<Integer> deque;
+    private ArrayList<Integer> list;
+    private IntPredicate half;
+
+    @Setup
+    public void setup() {
+        list = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        deque = new ArrayDeque<Integer>(list);
+        tree = FingerTrees.toTree(list, (IntMeasured<Integer>) (IntMeasured) COUNT_MEASURED);
+        half = new IntPredicate() {
+            @Override
+            public boolean test(int count) {
+                return count > size/2;
+            }
+        };
+    }
+
+    @Benchmark
+    public FingerTree<Integer, Integer> treeAddFirst() {
+        return tree.addFirst(-1);
+    }
+
+    @Benchmark
+    public Integer dequeAddFirst() {
+        deque.addFirst(-1);
+        return deque.pollFirst();
+    }
+
+    @Benchmark
+    public FingerTree<Integer, Integer> treeAddLast() {
+        return tree.addLast(-1);
+    }
+
+    @Benchmark
+    public Integer dequeAddLast() {
+        deque.addLast(-1);
+        return deque.pollLast();
+    }
+
+    @Benchmark
+    public FingerTree<Integer, Integer> treeRemoveFirst() {
+        return tree.removeFirst();
+    }
+
+    @Benchmark
+    public Integer dequeRemoveFirst() {
+        final Integer ret = deque.pollFirst();
+        deque.addFirst(ret);
+        return ret;
+    }
+
+    @Benchmark
+    public FingerTree<Integer, Integer> treeRemoveLast() {
+        return tree.removeLast();
+    }
+
+    @Benchmark
+    public Integer dequeRemoveLast() {
+        final Integer ret = deque.pollLast();
+        deque.addLast(ret);
+        return ret;
+    }
+
+    @Benchmark
+    public FingerTree<Integer, Integer> treeConcat() {
+        return tree.concat(tree);
+    }
+
+    @Benchmark
+    public List<Integer> arrayListConcat() {
+        final List<Integer> ret = new ArrayList<Integer>(size*2);
+        ret.addAll(list);
+        ret.addAll(list);
+        return ret;
+    }
+
+    @Benchmark
+    public Pair<FingerTree<Integer, Integer>, FingerTree<Integer, Integer>> treeSplit() {
+        return tree.splitInt(half);
+    }
+
+    @Benchmark
+    public Pair<List<Integer>, List<Integer>> arrayListSplit() {
+        return Pair.of((List<Integer>) new ArrayList<Integer>(list.subList(0, size/2)), (List<Integer>) new ArrayList<Integer>(list.subList(size/2, size)));
+    }
+
+    @Benchmark
+    public long treeIterate() {
+        long sum = 0;
+        final Iterator<Integer> iterator = tree.iterator();
+        while (iterator.hasNext()) {
+            sum += iterator.next();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long treeFold() {
+        return tree.foldLeftLong(0L, new FingerTree.LongFolder<Integer>() {
+            @Override
+            public long apply(long acc, Integer i) {
+                return acc+i;
+            }
+        });
+    }
+
+    @Benchmark
+    public long dequeIterate() {
+        long sum = 0;
+        for (Integer i : deque) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long arrayListIterate() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += list.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.benchmarks;
+
+import com.jeffplaisance.util.fingertree.list.IndexedList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * random access on IndexedList against ArrayList, the ArrayList subList is copied to match the independent
+ * result of IndexedList.subList
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexedListBenchmark {
+
+    private static final int INDEX_COUNT = 1024;
+
+    @Param({"16", "1024", "65536", "1048576"})
+    public int size;
+
+    private IndexedList<Integer> indexedList;
+    private ArrayList<Integer> arrayList;
+    private int[] indices;
+    private int next;
+
+    @Setup
+    public void setup() {
+        arrayList = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            arrayList.add(i);
+        }
+        indexedList = IndexedList.newList(arrayList);
+        final Random r = new Random(0);
+        indices = new int[INDEX_COUNT];
+        for (int i = 0; i < INDEX_COUNT; i++) {
+            indices[i] = r.nextInt(size);
+        }
+    }
+
+    private int nextIndex() {
+        return indices[next++ & (INDEX_COUNT-1)];
+    }
+
+    @Benchmark
+    public Integer indexedListGet() {
+        return indexedList.get(nextIndex());
+    }
+
+    @Benchmark
+    public Integer arrayListGet() {
+        return arrayList.get(nextIndex());
+    }
+
+    @Benchmark
+    public IndexedList<Integer> indexedListSet() {
+        return indexedList.set(nextIndex(), -1);
+    }
+
+    @Benchmark
+    public Integer arrayListSet() {
+        final int index = nextIndex();
+        return arrayList.set(index, arrayList.get(index));
+    }
+
+    @Benchmark
+    public IndexedList<Integer> indexedListSubList() {
+        final int a = nextIndex();
+        final int b = nextIndex();
+        return indexedList.subList(Math.min(a, b), Math.max(a, b));
+    }
+
+    @Benchmark
+    public List<Integer> arrayListSubList() {
+        final int a = nextIndex();
+        final int b = nextIndex();
+        return new ArrayList<Integer>(arrayList.subList(Math.min(a, b), Math.max(a, b)));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.benchmarks;
+
+import com.jeffplaisance.util.fingertree.rope.Rope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rope built from 64 char chunks against the same text in a String and a StringBuilder
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RopeBenchmark {
+
+    private static final int CHUNK_SIZE = 64;
+    private static final int INDEX_COUNT = 1024;
+
+    @Param({"1024", "65536", "1048576", "16777216"})
+    public int length;
+
+    private Rope rope;
+    private Rope ropeCopy;
+    private String string;
+    private String stringCopy;
+    private StringBuilder builder;
+    private int[] indices;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final Random r = new Random(0);
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + r.nextInt(26));
+        }
+        string = new String(chars);
+        stringCopy = new String(chars);
+        builder = new StringBuilder(string);
+        rope = chunked(string);
+        ropeCopy = chunked(stringCopy);
+        indices = new int[INDEX_COUNT];
+        for (int i = 0; i < INDEX_COUNT; i++) {
+            indices[i] = r.nextInt(length);
+        }
+    }
+
+    private static Rope chunked(String str) {
+        Rope ret = Rope.empty();
+        for (int i = 0; i < str.length(); i += CHUNK_SIZE) {
+            ret = ret.append(str.substring(i, Math.min(i+CHUNK_SIZE, str.length())));
+        }
+        return ret;
+    }
+
+    private int nextIndex() {
+        return indices[next++ & (INDEX_COUNT-1)];
+    }
+
+    @Benchmark
+    public char ropeCharAt() {
+        return rope.charAt(nextIndex());
+    }
+
+    @Benchmark
+    public char stringBuilderCharAt() {
+        return builder.charAt(nextIndex());
+    }
+
+    @Benchmark
+    public Rope ropeSubSequence() {
+        final int a = nextIndex();
+        final int b = nextIndex();
+        return rope.subSequence(Math.min(a, b), Math.max(a, b));
+    }
+
+    @Benchmark
+    public String stringSubstring() {
+        final int a = nextIndex();
+        final int b = nextIndex();
+        return string.substring(Math.min(a, b), Math.max(a, b));
+    }
+
+    @Benchmark
+    public Rope ropeAppend() {
+        return rope.append("0123456789");
+    }
+
+    @Benchmark
+    public int stringBuilderAppend() {
+        builder.append("0123456789");
+        builder.setLength(length);
+        return builder.length();
+    }
+
+    @Benchmark
+    public boolean ropeEquals() {
+        return rope.equals(ropeCopy);
+    }
+
+    @Benchmark
+    public boolean stringEquals() {
+        return string.equals(stringCopy);
+    }
+}
@@ -16,16 +16,18 @@
 
 package com.jeffplaisance.util.fingertree;
 
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
-import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.jeffplaisance.util.Pair;
 
 import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
 
 public final class Deep<V,T> extends FingerTree<V,T> {
 
@@ -48,6 +50,11 @@ public final class Deep<V,T> extends FingerTree<V,T> {
         return matcher.deep(prefix, middle, suffix);
     }
 
+    @Override
+    Measured<V, T> measured() {
+        return measured;
+    }
+
     @Override
     public V measure() {
         V localMeasure = measure;
@@ -192,7 +199,7 @@ public final class Deep<V,T> extends FingerTree<V,T> {
         return false;
     }
 
-    private static final Digit.Matcher FIRST = new Digit.Matcher() {
+    private static final Digit.Matcher<Object, Object> FIRST = new Digit.Matcher<Object, Object>() {
         @Override
         public Object one(Object a) {
             return a;
@@ -214,8 +221,9 @@ public final class Deep<V,T> extends FingerTree<V,T> {
         }
     };
 
+    @SuppressWarnings("unchecked")
     private static <T> Digit.Matcher<T, T> firstMatcher() {
-        return FIRST;
+        return (Digit.Matcher<T, T>) (Digit.Matcher<?, ?>) FIRST;
     }
 
     @Override
@@ -223,7 +231,7 @@ public final class Deep<V,T> extends FingerTree<V,T> {
         return prefix.match(Deep.<T>firstMatcher());
     }
 
-    private static final Digit.Matcher LAST = new Digit.Matcher() {
+    private static final Digit.Matcher<Object, Object> LAST = new Digit.Matcher<Object, Object>() {
         @Override
         public Object one(Object a) {
             return a;
@@ -245,8 +253,9 @@ public final class Deep<V,T> extends FingerTree<V,T> {
         }
     };
 
+    @SuppressWarnings("unchecked")
     private static <T> Digit.Matcher<T, T> lastMatcher() {
-        return LAST;
+        return (Digit.Matcher<T, T>) (Digit.Matcher<?, ?>) LAST;
     }
 
     @Override
@@ -424,6 +433,446 @@ public final class Deep<V,T> extends FingerTree<V,T> {
         }
     }
 
+    @Override
+    public FingerTree<V, T> takeUntilInt(IntPredicate predicate) {
+        return takeUntilInt(predicate, false);
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilInt(IntPredicate predicate) {
+        return dropUntilInt(predicate, true);
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilInt(IntPredicate predicate, boolean inclusive) {
+        if (predicate.test(intMeasured().intValue(measure()))) {
+            return splitLeftInt(predicate, intMeasured().zeroInt(), inclusive);
+        }
+        return this;
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilInt(IntPredicate predicate, boolean inclusive) {
+        if (predicate.test(intMeasured().intValue(measure()))) {
+            return splitRightInt(predicate, intMeasured().zeroInt(), inclusive);
+        }
+        return new Empty<V, T>(measured);
+    }
+
+    @Override
+    protected FingerTree<V, T> splitLeftInt(IntPredicate predicate, int initial, boolean inclusive) {
+        final IntValuedMeasured<V, T> intMeasured = intMeasured();
+        final int vpr = intMeasured.sumInt(initial, measureInt(intMeasured, prefix));
+        final SplitDigit<T> splitDigit;
+        final FingerTree<V,T> left;
+        if (predicate.test(vpr)) {
+            splitDigit = splitDigit(intMeasured, predicate, initial, prefix);
+            left = FingerTrees.toTree(splitDigit.head, measured);
+        } else {
+            final int vm = intMeasured.sumInt(vpr, intMeasured.intValue(middle.measure()));
+            if (predicate.test(vm)) {
+                final Split<V, Node<V, T>> split = middle.splitTreeInt(predicate, vpr);
+                splitDigit = splitDigit(intMeasured, predicate, intMeasured.sumInt(vpr, intMeasured.intValue(split.getHead().measure())), split.getElement());
+                left = deepR(prefix, split.getHead(), splitDigit.head, measured);
+            } else {
+                splitDigit = splitDigit(intMeasured, predicate, vm, suffix);
+                left = deepR(prefix, middle, splitDigit.head, measured);
+            }
+        }
+        if (inclusive) return left.addLast(splitDigit.t);
+        return left;
+    }
+
+    @Override
+    protected FingerTree<V, T> splitRightInt(IntPredicate predicate, int initial, boolean inclusive) {
+        final IntValuedMeasured<V, T> intMeasured = intMeasured();
+        final int vpr = intMeasured.sumInt(initial, measureInt(intMeasured, prefix));
+        final SplitDigit<T> splitDigit;
+        final FingerTree<V,T> right;
+        if (predicate.test(vpr)) {
+            splitDigit = splitDigit(intMeasured, predicate, initial, prefix);
+            right = deepL(splitDigit.tail, middle, suffix, measured);
+        } else {
+            final int vm = intMeasured.sumInt(vpr, intMeasured.intValue(middle.measure()));
+            if (predicate.test(vm)) {
+                final Split<V, Node<V, T>> split = middle.splitTreeInt(predicate, vpr);
+                splitDigit = splitDigit(intMeasured, predicate, intMeasured.sumInt(vpr, intMeasured.intValue(split.getHead().measure())), split.getElement());
+                right = deepL(splitDigit.tail, split.getTail(), suffix, measured);
+            } else {
+                splitDigit = splitDigit(intMeasured, predicate, vm, suffix);
+                right = FingerTrees.toTree(splitDigit.tail, measured);
+            }
+        }
+        if (inclusive) return right.addFirst(splitDigit.t);
+        return right;
+    }
+
+    @Override
+    public Pair<FingerTree<V, T>, FingerTree<V, T>> splitInt(IntPredicate predicate) {
+        if (predicate.test(intMeasured().intValue(measure()))) {
+            final Split<V, T> split = splitTreeInt(predicate, intMeasured().zeroInt());
+            return Pair.of(split.getHead(), split.getTail().addFirst(split.getElement()));
+        } else {
+            return Pair.<FingerTree<V,T>, FingerTree<V,T>>of(this, new Empty<V, T>(measured));
+        }
+    }
+
+    @Override
+    protected Split<V, T> splitTreeInt(IntPredicate predicate, int initial) {
+        final IntValuedMeasured<V, T> intMeasured = intMeasured();
+        final int vpr = intMeasured.sumInt(initial, measureInt(intMeasured, prefix));
+        if (predicate.test(vpr)) {
+            final SplitDigit<T> splitDigit = splitDigit(intMeasured, predicate, initial, prefix);
+            return new Split<V, T>(FingerTrees.toTree(splitDigit.head, measured), splitDigit.t, deepL(splitDigit.tail, middle, suffix, measured));
+        }
+        final int vm = intMeasured.sumInt(vpr, intMeasured.intValue(middle.measure()));
+        if (predicate.test(vm)) {
+            final Split<V, Node<V, T>> split = middle.splitTreeInt(predicate, vpr);
+            final SplitDigit<T> splitDigit = splitDigit(intMeasured, predicate, intMeasured.sumInt(vpr, intMeasured.intValue(split.getHead().measure())), split.getElement());
+            return new Split<V, T>(deepR(prefix, split.getHead(), splitDigit.head, measured), splitDigit.t, deepL(splitDigit.tail, split.getTail(), suffix, measured));
+        } else {
+            final SplitDigit<T> splitDigit = splitDigit(intMeasured, predicate, vm, suffix);
+            return new Split<V, T>(deepR(prefix, middle, splitDigit.head, measured), splitDigit.t, FingerTrees.toTree(splitDigit.tail, measured));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private IntValuedMeasured<V, T> intMeasured() {
+        return (IntValuedMeasured<V, T>) measured;
+    }
+
+    private static <T> int measureInt(IntValuedMeasured<?, T> measured, Digit<?, T> digit) {
+        int ret = measured.zeroInt();
+        for (int i = 0; i < digit.size(); i++) {
+            ret = measured.sumInt(ret, measured.measureInt(digit.get(i)));
+        }
+        return ret;
+    }
+
+    private static <T> SplitDigit<T> splitDigit(IntValuedMeasured<?, T> measured, IntPredicate predicate, int initial, Iterable<T> digit) {
+        final List<T> head = Lists.newArrayList();
+        final List<T> tail = Lists.newArrayList();
+        final Iterator<T> iterator = digit.iterator();
+        int i = initial;
+        while (iterator.hasNext()) {
+            final T a = iterator.next();
+            i = measured.sumInt(i, measured.measureInt(a));
+            if (predicate.test(i)) {
+                while (iterator.hasNext()) {
+                    tail.add(iterator.next());
+                }
+                return new SplitDigit<T>(head, a, tail);
+            }
+            head.add(a);
+        }
+        throw new IllegalArgumentException("predicate.test(digit) == false");
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilLong(LongPredicate predicate) {
+        return takeUntilLong(predicate, false);
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilLong(LongPredicate predicate) {
+        return dropUntilLong(predicate, true);
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilLong(LongPredicate predicate, boolean inclusive) {
+        if (predicate.test((Long) measure())) {
+            return splitLeftLong(predicate, longMeasured().zeroLong(), inclusive);
+        }
+        return this;
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilLong(LongPredicate predicate, boolean inclusive) {
+        if (predicate.test((Long) measure())) {
+            return splitRightLong(predicate, longMeasured().zeroLong(), inclusive);
+        }
+        return new Empty<V, T>(measured);
+    }
+
+    @Override
+    protected FingerTree<V, T> splitLeftLong(LongPredicate predicate, long initial, boolean inclusive) {
+        final LongMeasured<T> longMeasured = longMeasured();
+        final long vpr = longMeasured.sumLong(initial, measureLong(longMeasured, prefix));
+        final SplitDigit<T> splitDigit;
+        final FingerTree<V,T> left;
+        if (predicate.test(vpr)) {
+            splitDigit = splitDigit(longMeasured, predicate, initial, prefix);
+            left = FingerTrees.toTree(splitDigit.head, measured);
+        } else {
+            final long vm = longMeasured.sumLong(vpr, (Long) middle.measure());
+            if (predicate.test(vm)) {
+                final Split<V, Node<V, T>> split = middle.splitTreeLong(predicate, vpr);
+                splitDigit = splitDigit(longMeasured, predicate, longMeasured.sumLong(vpr, (Long) split.getHead().measure()), split.getElement());
+                left = deepR(prefix, split.getHead(), splitDigit.head, measured);
+            } else {
+                splitDigit = splitDigit(longMeasured, predicate, vm, suffix);
+                left = deepR(prefix, middle, splitDigit.head, measured);
+            }
+        }
+        if (inclusive) return left.addLast(splitDigit.t);
+        return left;
+    }
+
+    @Override
+    protected FingerTree<V, T> splitRightLong(LongPredicate predicate, long initial, boolean inclusive) {
+        final LongMeasured<T> longMeasured = longMeasured();
+        final long vpr = longMeasured.sumLong(initial, measureLong(longMeasured, prefix));
+        final SplitDigit<T> splitDigit;
+        final FingerTree<V,T> right;
+        if (predicate.test(vpr)) {
+            splitDigit = splitDigit(longMeasured, predicate, initial, prefix);
+            right = deepL(splitDigit.tail, middle, suffix, measured);
+        } else {
+            final long vm = longMeasured.sumLong(vpr, (Long) middle.measure());
+            if (predicate.test(vm)) {
+                final Split<V, Node<V, T>> split = middle.splitTreeLong(predicate, vpr);
+                splitDigit = splitDigit(longMeasured, predicate, longMeasured.sumLong(vpr, (Long) split.getHead().measure()), split.getElement());
+                right = deepL(splitDigit.tail, split.getTail(), suffix, measured);
+            } else {
+                splitDigit = splitDigit(longMeasured, predicate, vm, suffix);
+                right = FingerTrees.toTree(splitDigit.tail, measured);
+            }
+        }
+        if (inclusive) return right.addFirst(splitDigit.t);
+        return right;
+    }
+
+    @Override
+    public Pair<FingerTree<V, T>, FingerTree<V, T>> splitLong(LongPredicate predicate) {
+        if (predicate.test((Long) measure())) {
+            final Split<V, T> split = splitTreeLong(predicate, longMeasured().zeroLong());
+            return Pair.of(split.getHead(), split.getTail().addFirst(split.getElement()));
+        } else {
+            return Pair.<FingerTree<V,T>, FingerTree<V,T>>of(this, new Empty<V, T>(measured));
+        }
+    }
+
+    @Override
+    protected Split<V, T> splitTreeLong(LongPredicate predicate, long initial) {
+        final LongMeasured<T> longMeasured = longMeasured();
+        final long vpr = longMeasured.sumLong(initial, measureLong(longMeasured, prefix));
+        if (predicate.test(vpr)) {
+            final SplitDigit<T> splitDigit = splitDigit(longMeasured, predicate, initial, prefix);
+            return new Split<V, T>(FingerTrees.toTree(splitDigit.head, measured), splitDigit.t, deepL(splitDigit.tail, middle, suffix, measured));
+        }
+        final long vm = longMeasured.sumLong(vpr, (Long) middle.measure());
+        if (predicate.test(vm)) {
+            final Split<V, Node<V, T>> split = middle.splitTreeLong(predicate, vpr);
+            final SplitDigit<T> splitDigit = splitDigit(longMeasured, predicate, longMeasured.sumLong(vpr, (Long) split.getHead().measure()), split.getElement());
+            return new Split<V, T>(deepR(prefix, split.getHead(), splitDigit.head, measured), splitDigit.t, deepL(splitDigit.tail, split.getTail(), suffix, measured));
+        } else {
+            final SplitDigit<T> splitDigit = splitDigit(longMeasured, predicate, vm, suffix);
+            return new Split<V, T>(deepR(prefix, middle, splitDigit.head, measured), splitDigit.t, FingerTrees.toTree(splitDigit.tail, measured));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private LongMeasured<T> longMeasured() {
+        return (LongMeasured<T>) measured;
+    }
+
+    private static <T> long measureLong(LongMeasured<T> measured, Digit<?, T> digit) {
+        long ret = measured.zeroLong();
+        for (int i = 0; i < digit.size(); i++) {
+            ret = measured.sumLong(ret, measured.measureLong(digit.get(i)));
+        }
+        return ret;
+    }
+
+    private static <T> SplitDigit<T> splitDigit(LongMeasured<T> measured, LongPredicate predicate, long initial, Iterable<T> digit) {
+        final List<T> head = Lists.newArrayList();
+        final List<T> tail = Lists.newArrayList();
+        final Iterator<T> iterator = digit.iterator();
+        long i = initial;
+        while (iterator.hasNext()) {
+            final T a = iterator.next();
+            i = measured.sumLong(i, measured.measureLong(a));
+            if (predicate.test(i)) {
+                while (iterator.hasNext()) {
+                    tail.add(iterator.next());
+                }
+                return new SplitDigit<T>(head, a, tail);
+            }
+            head.add(a);
+        }
+        throw new IllegalArgumentException("predicate.test(digit) == false");
+    }
+
+    @Override
+    public Lookup<V, T> lookup(Predicate<V> predicate) {
+        if (predicate.apply(measure())) {
+            final Lookup<V, T> result = new Lookup<V, T>();
+            lookup(predicate, measured.zero(), result);
+            return result;
+        }
+        return null;
+    }
+
+    @Override
+    protected void lookup(Predicate<V> predicate, V initial, Lookup<V, ?> result) {
+        final V vpr = measured.sum(initial, prefix.measure());
+        if (predicate.apply(vpr)) {
+            lookupDigit(measured, predicate, initial, prefix, result);
+            return;
+        }
+        final V vm = measured.sum(vpr, middle.measure());
+        if (predicate.apply(vm)) {
+            middle.lookup(predicate, vpr, result);
+            @SuppressWarnings("unchecked")
+            final Node<V, T> node = (Node<V, T>) result.element();
+            lookupNode(measured, predicate, result.getMeasure(), node, result);
+        } else {
+            lookupDigit(measured, predicate, vm, suffix, result);
+        }
+    }
+
+    @Override
+    public IntLookup<T> lookupInt(IntPredicate predicate) {
+        if (predicate.test(intMeasured().intValue(measure()))) {
+            final IntLookup<T> result = new IntLookup<T>();
+            lookupInt(predicate, intMeasured().zeroInt(), result);
+            return result;
+        }
+        return null;
+    }
+
+    @Override
+    protected void lookupInt(IntPredicate predicate, int initial, IntLookup<?> result) {
+        final IntValuedMeasured<V, T> intMeasured = intMeasured();
+        final int vpr = intMeasured.sumInt(initial, measureInt(intMeasured, prefix));
+        if (predicate.test(vpr)) {
+            lookupDigit(intMeasured, predicate, initial, prefix, result);
+            return;
+        }
+        final int vm = intMeasured.sumInt(vpr, intMeasured.intValue(middle.measure()));
+        if (predicate.test(vm)) {
+            middle.lookupInt(predicate, vpr, result);
+            @SuppressWarnings("unchecked")
+            final Node<V, T> node = (Node<V, T>) result.element();
+            lookupNode(intMeasured, predicate, result.getMeasure(), node, result);
+        } else {
+            lookupDigit(intMeasured, predicate, vm, suffix, result);
+        }
+    }
+
+    @Override
+    public LongLookup<T> lookupLong(LongPredicate predicate) {
+        if (predicate.test((Long) measure())) {
+            final LongLookup<T> result = new LongLookup<T>();
+            lookupLong(predicate, longMeasured().zeroLong(), result);
+            return result;
+        }
+        return null;
+    }
+
+    @Override
+    protected void lookupLong(LongPredicate predicate, long initial, LongLookup<?> result) {
+        final LongMeasured<T> longMeasured = longMeasured();
+        final long vpr = longMeasured.sumLong(initial, measureLong(longMeasured, prefix));
+        if (predicate.test(vpr)) {
+            lookupDigit(longMeasured, predicate, initial, prefix, result);
+            return;
+        }
+        final long vm = longMeasured.sumLong(vpr, (Long) middle.measure());
+        if (predicate.test(vm)) {
+            middle.lookupLong(predicate, vpr, result);
+            @SuppressWarnings("unchecked")
+            final Node<V, T> node = (Node<V, T>) result.element();
+            lookupNode(longMeasured, predicate, result.getMeasure(), node, result);
+        } else {
+            lookupDigit(longMeasured, predicate, vm, suffix, result);
+        }
+    }
+
+    private static <V,T> void lookupDigit(Measured<V,T> measured, Predicate<V> predicate, V initial, Digit<V,T> digit, Lookup<V,?> result) {
+        V i = initial;
+        for (int j = 0; j < digit.size(); j++) {
+            final T a = digit.get(j);
+            final V next = measured.sum(i, measured.measure(a));
+            if (predicate.apply(next)) {
+                result.set(i, a);
+                return;
+            }
+            i = next;
+        }
+        throw new IllegalArgumentException("predicate.apply(digit) == false");
+    }
+
+    private static <V,T> void lookupNode(Measured<V,T> measured, Predicate<V> predicate, V initial, Node<V,T> node, Lookup<V,?> result) {
+        V i = initial;
+        for (int j = 0; j < node.size(); j++) {
+            final T a = node.get(j);
+            final V next = measured.sum(i, measured.measure(a));
+            if (predicate.apply(next)) {
+                result.set(i, a);
+                return;
+            }
+            i = next;
+        }
+        throw new IllegalArgumentException("predicate.apply(node) == false");
+    }
+
+    private static <T> void lookupDigit(IntValuedMeasured<?, T> measured, IntPredicate predicate, int initial, Digit<?,T> digit, IntLookup<?> result) {
+        int i = initial;
+        for (int j = 0; j < digit.size(); j++) {
+            final T a = digit.get(j);
+            final int next = measured.sumInt(i, measured.measureInt(a));
+            if (predicate.test(next)) {
+                result.set(i, a);
+                return;
+            }
+            i = next;
+        }
+        throw new IllegalArgumentException("predicate.test(digit) == false");
+    }
+
+    private static <T> void lookupNode(IntValuedMeasured<?, T> measured, IntPredicate predicate, int initial, Node<?,T> node, IntLookup<?> result) {
+        int i = initial;
+        for (int j = 0; j < node.size(); j++) {
+            final T a = node.get(j);
+            final int next = measured.sumInt(i, measured.measureInt(a));
+            if (predicate.test(next)) {
+                result.set(i, a);
+                return;
+            }
+            i = next;
+        }
+        throw new IllegalArgumentException("predicate.test(node) == false");
+    }
+
+    private static <T> void lookupDigit(LongMeasured<T> measured, LongPredicate predicate, long initial, Digit<?,T> digit, LongLookup<?> result) {
+        long i = initial;
+        for (int j = 0; j < digit.size(); j++) {
+            final T a = digit.get(j);
+            final long next = measured.sumLong(i, measured.measureLong(a));
+            if (predicate.test(next)) {
+                result.set(i, a);
+                return;
+            }
+            i = next;
+        }
+        throw new IllegalArgumentException("predicate.test(digit) == false");
+    }
+
+    private static <T> void lookupNode(LongMeasured<T> measured, LongPredicate predicate, long initial, Node<?,T> node, LongLookup<?> result) {
+        long i = initial;
+        for (int j = 0; j < node.size(); j++) {
+            final T a = node.get(j);
+            final long next = measured.sumLong(i, measured.measureLong(a));
+            if (predicate.test(next)) {
+                result.set(i, a);
+                return;
+            }
+            i = next;
+        }
+        throw new IllegalArgumentException("predicate.test(node) == false");
+    }
+
     private static <V,T> FingerTree<V, T> deepL(List<T> prefix, final FingerTree<V, Node<V,T>> middle, Digit<V, T> suffix, Measured<V, T> measured) {
         if (prefix.isEmpty()) {
             if (middle.isEmpty()) {
@@ -526,38 +975,168 @@ public final class Deep<V,T> extends FingerTree<V,T> {
     }
 
     @Override
-    public Iterator<T> iterator() {
-        final Iterator<T> middleIteratorThunk = new Iterator<T>() {
+    public void forEach(final Consumer<? super T> action) {
+        for (int i = 0; i < prefix.size(); i++) {
+            action.accept(prefix.get(i));
+        }
+        middle.forEach(new Consumer<Node<V, T>>() {
+            @Override
+            public void accept(Node<V, T> node) {
+                for (int i = 0; i < node.size(); i++) {
+                    action.accept(node.get(i));
+                }
+            }
+        });
+        for (int i = 0; i < suffix.size(); i++) {
+            action.accept(suffix.get(i));
+        }
+    }
 
-            Iterator<T> middleIterator = null;
+    @Override
+    public <A> A foldLeft(A initial, final BiFunction<A, ? super T, A> f) {
+        A ret = initial;
+        for (int i = 0; i < prefix.size(); i++) {
+            ret = f.apply(ret, prefix.get(i));
+        }
+        ret = middle.foldLeft(ret, new BiFunction<A, Node<V, T>, A>() {
+            @Override
+            public A apply(A acc, Node<V, T> node) {
+                for (int i = 0; i < node.size(); i++) {
+                    acc = f.apply(acc, node.get(i));
+                }
+                return acc;
+            }
+        });
+        for (int i = 0; i < suffix.size(); i++) {
+            ret = f.apply(ret, suffix.get(i));
+        }
+        return ret;
+    }
 
-            Iterator<T> getMiddleIterator() {
-                if (middleIterator == null) {
-                    middleIterator = Iterators.concat(Iterators.transform(middle.iterator(), new Function<Node<V, T>, Iterator<T>>() {
-                        @Override
-                        public Iterator<T> apply(Node<V, T> ts) {
-                            return ts.iterator();
-                        }
-                    }));
+    @Override
+    public int foldLeftInt(int initial, final IntFolder<? super T> f) {
+        int ret = initial;
+        for (int i = 0; i < prefix.size(); i++) {
+            ret = f.apply(ret, prefix.get(i));
+        }
+        ret = middle.foldLeftInt(ret, new IntFolder<Node<V, T>>() {
+            @Override
+            public int apply(int acc, Node<V, T> node) {
+                for (int i = 0; i < node.size(); i++) {
+                    acc = f.apply(acc, node.get(i));
                 }
-                return middleIterator;
+                return acc;
             }
+        });
+        for (int i = 0; i < suffix.size(); i++) {
+            ret = f.apply(ret, suffix.get(i));
+        }
+        return ret;
+    }
 
+    @Override
+    public long foldLeftLong(long initial, final LongFolder<? super T> f) {
+        long ret = initial;
+        for (int i = 0; i < prefix.size(); i++) {
+            ret = f.apply(ret, prefix.get(i));
+        }
+        ret = middle.foldLeftLong(ret, new LongFolder<Node<V, T>>() {
             @Override
-            public boolean hasNext() {
-                return getMiddleIterator().hasNext();
+            public long apply(long acc, Node<V, T> node) {
+                for (int i = 0; i < node.size(); i++) {
+                    acc = f.apply(acc, node.get(i));
+                }
+                return acc;
             }
+        });
+        for (int i = 0; i < suffix.size(); i++) {
+            ret = f.apply(ret, suffix.get(i));
+        }
+        return ret;
+    }
 
+    @Override
+    public <A> A foldRight(A initial, final BiFunction<A, ? super T, A> f) {
+        A ret = initial;
+        for (int i = suffix.size()-1; i >= 0; i--) {
+            ret = f.apply(ret, suffix.get(i));
+        }
+        ret = middle.foldRight(ret, new BiFunction<A, Node<V, T>, A>() {
             @Override
-            public T next() {
-                return getMiddleIterator().next();
+            public A apply(A acc, Node<V, T> node) {
+                for (int i = node.size()-1; i >= 0; i--) {
+                    acc = f.apply(acc, node.get(i));
+                }
+                return acc;
             }
+        });
+        for (int i = prefix.size()-1; i >= 0; i--) {
+            ret = f.apply(ret, prefix.get(i));
+        }
+        return ret;
+    }
 
+    @Override
+    public int foldRightInt(int initial, final IntFolder<? super T> f) {
+        int ret = initial;
+        for (int i = suffix.size()-1; i >= 0; i--) {
+            ret = f.apply(ret, suffix.get(i));
+        }
+        ret = middle.foldRightInt(ret, new IntFolder<Node<V, T>>() {
             @Override
-            public void remove() {
-                throw new UnsupportedOperationException();
+            public int apply(int acc, Node<V, T> node) {
+                for (int i = node.size()-1; i >= 0; i--) {
+                    acc = f.apply(acc, node.get(i));
+                }
+                return acc;
             }
-        };
-        return Iterators.concat(prefix.iterator(), middleIteratorThunk, suffix.iterator());
+        });
+        for (int i = prefix.size()-1; i >= 0; i--) {
+            ret = f.apply(ret, prefix.get(i));
+        }
+        return ret;
+    }
+
+    @Override
+    public long foldRightLong(long initial, final LongFolder<? super T> f) {
+        long ret = initial;
+        for (int i = suffix.size()-1; i >= 0; i--) {
+            ret = f.apply(ret, suffix.get(i));
+        }
+        ret = middle.foldRightLong(ret, new LongFolder<Node<V, T>>() {
+            @Override
+            public long apply(long acc, Node<V, T> node) {
+                for (int i = node.size()-1; i >= 0; i--) {
+                    acc = f.apply(acc, node.get(i));
+                }
+                return acc;
+            }
+        });
+        for (int i = prefix.size()-1; i >= 0; i--) {
+            ret = f.apply(ret, prefix.get(i));
+        }
+        return ret;
+    }
+
+    Digit<V, T> prefix() {
+        return prefix;
+    }
+
+    FingerTree<V, Node<V, T>> middle() {
+        return middle;
+    }
+
+    Digit<V, T> suffix() {
+        return suffix;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new FingerTreeIterator<T>(this, false);
+    }
+
+    @Override
+    public Iterator<T> reverseIterator() {
+        return new FingerTreeIterator<T>(this, true);
     }
 }
@@ -23,6 +23,17 @@ public interface Digit<V, T> extends IterableReverseIterable<T> {
 
     public V measure();
 
+    /**
+     * @return number of elements in this digit, between 1 and 4
+     */
+    public int size();
+
+    /**
+     * @param index index of element, must be less than size()
+     * @return element at index
+     */
+    public T get(int index);
+
     public Iterator<T> reverseIterator();
 
     public static abstract class Matcher<T, Z> {
@@ -21,6 +21,10 @@ import com.google.common.collect.Iterators;
 import com.jeffplaisance.util.Pair;
 
 import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
 
 public final class Empty<V,T> extends FingerTree<V,T> {
 
@@ -37,6 +41,11 @@ public final class Empty<V,T> extends FingerTree<V,T> {
         return matcher.empty();
     }
 
+    @Override
+    Measured<V, T> measured() {
+        return measured;
+    }
+
     @Override
     public V measure() {
         return measure;
@@ -123,8 +132,159 @@ public final class Empty<V,T> extends FingerTree<V,T> {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public FingerTree<V, T> takeUntilInt(IntPredicate predicate) {
+        return this;
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilInt(IntPredicate predicate) {
+        return this;
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilInt(IntPredicate predicate, boolean inclusive) {
+        return this;
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilInt(IntPredicate predicate, boolean inclusive) {
+        return this;
+    }
+
+    @Override
+    protected FingerTree<V, T> splitLeftInt(IntPredicate predicate, int initial, boolean inclusive) {
+        return this;
+    }
+
+    @Override
+    protected FingerTree<V, T> splitRightInt(IntPredicate predicate, int initial, boolean inclusive) {
+        return this;
+    }
+
+    @Override
+    public Pair<FingerTree<V, T>, FingerTree<V, T>> splitInt(IntPredicate predicate) {
+        final Empty<V, T> empty = new Empty<>(measured);
+        return Pair.<FingerTree<V, T>, FingerTree<V, T>>of(empty, empty);
+    }
+
+    @Override
+    protected Split<V, T> splitTreeInt(IntPredicate predicate, int initial) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilLong(LongPredicate predicate) {
+        return this;
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilLong(LongPredicate predicate) {
+        return this;
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilLong(LongPredicate predicate, boolean inclusive) {
+        return this;
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilLong(LongPredicate predicate, boolean inclusive) {
+        return this;
+    }
+
+    @Override
+    protected FingerTree<V, T> splitLeftLong(LongPredicate predicate, long initial, boolean inclusive) {
+        return this;
+    }
+
+    @Override
+    protected FingerTree<V, T> splitRightLong(LongPredicate predicate, long initial, boolean inclusive) {
+        return this;
+    }
+
+    @Override
+    public Pair<FingerTree<V, T>, FingerTree<V, T>> splitLong(LongPredicate predicate) {
+        final Empty<V, T> empty = new Empty<>(measured);
+        return Pair.<FingerTree<V, T>, FingerTree<V, T>>of(empty, empty);
+    }
+
+    @Override
+    protected Split<V, T> splitTreeLong(LongPredicate predicate, long initial) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Lookup<V,T> lookup(Predicate<V> predicate) {
+        return null;
+    }
+
+    @Override
+    protected void lookup(Predicate<V> predicate, V initial, Lookup<V,?> result) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IntLookup<T> lookupInt(IntPredicate predicate) {
+        return null;
+    }
+
+    @Override
+    protected void lookupInt(IntPredicate predicate, int initial, IntLookup<?> result) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public LongLookup<T> lookupLong(LongPredicate predicate) {
+        return null;
+    }
+
+    @Override
+    protected void lookupLong(LongPredicate predicate, long initial, LongLookup<?> result) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+    }
+
+    @Override
+    public <A> A foldLeft(A initial, BiFunction<A, ? super T, A> f) {
+        return initial;
+    }
+
+    @Override
+    public int foldLeftInt(int initial, IntFolder<? super T> f) {
+        return initial;
+    }
+
+    @Override
+    public long foldLeftLong(long initial, LongFolder<? super T> f) {
+        return initial;
+    }
+
+    @Override
+    public <A> A foldRight(A initial, BiFunction<A, ? super T, A> f) {
+        return initial;
+    }
+
+    @Override
+    public int foldRightInt(int initial, IntFolder<? super T> f) {
+        return initial;
+    }
+
+    @Override
+    public long foldRightLong(long initial, LongFolder<? super T> f) {
+        return initial;
+    }
+
     @Override
     public Iterator<T> iterator() {
         return Iterators.emptyIterator();
     }
+
+    @Override
+    public Iterator<T> reverseIterator() {
+        return Iterators.emptyIterator();
+    }
 }
@@ -19,7 +19,13 @@ package com.jeffplaisance.util.fingertree;
 import com.google.common.base.Predicate;
 import com.jeffplaisance.util.Pair;
 
+import javax.annotation.Nullable;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
 
 /**
  * base type for all finger tree instances
@@ -29,7 +35,7 @@ import java.util.Iterator;
  * @param <V> measure type
  * @param <T> element type
  */
-public abstract class FingerTree<V,T> implements Iterable<T> {
+public abstract class FingerTree<V,T> implements IterableReverseIterable<T> {
 
     /**
      * package private constructor, should not be subclassed except for Empty, Single, Deep
@@ -51,6 +57,8 @@ public abstract class FingerTree<V,T> implements Iterable<T> {
      */
     public abstract V measure();
 
+    abstract Measured<V,T> measured();
+
     /**
      * add t to tree at beginning
      * @param t element to add
@@ -143,8 +151,208 @@ public abstract class FingerTree<V,T> implements Iterable<T> {
 
     protected abstract Split<V,T> splitTree(Predicate<V> predicate, V initial);
 
+    /**
+     * takeUntil specialized for trees measured by an IntValuedMeasured such as IntMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @return prefix
+     */
+    public abstract FingerTree<V,T> takeUntilInt(IntPredicate predicate);
+
+    /**
+     * dropUntil specialized for trees measured by an IntValuedMeasured such as IntMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @return suffix
+     */
+    public abstract FingerTree<V,T> dropUntilInt(IntPredicate predicate);
+
+    /**
+     * takeUntil specialized for trees measured by an IntValuedMeasured such as IntMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @param inclusive if true include the first element for which predicate is false in prefix
+     * @return prefix
+     */
+    public abstract FingerTree<V,T> takeUntilInt(IntPredicate predicate, boolean inclusive);
+
+    /**
+     * dropUntil specialized for trees measured by an IntValuedMeasured such as IntMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @param inclusive if true include the last element for which predicate was true in suffix
+     * @return suffix
+     */
+    public abstract FingerTree<V,T> dropUntilInt(IntPredicate predicate, boolean inclusive);
+
+    protected abstract FingerTree<V,T> splitLeftInt(IntPredicate predicate, int initial, boolean inclusive);
+
+    protected abstract FingerTree<V,T> splitRightInt(IntPredicate predicate, int initial, boolean inclusive);
+
+    /**
+     * split specialized for trees measured by an IntValuedMeasured such as IntMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @return pair containing prefix and suffix
+     */
+    public abstract Pair<FingerTree<V,T>, FingerTree<V,T>> splitInt(IntPredicate predicate);
+
+    protected abstract Split<V,T> splitTreeInt(IntPredicate predicate, int initial);
+
+    /**
+     * takeUntil specialized for trees measured by a LongMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @return prefix
+     */
+    public abstract FingerTree<V,T> takeUntilLong(LongPredicate predicate);
+
+    /**
+     * dropUntil specialized for trees measured by a LongMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @return suffix
+     */
+    public abstract FingerTree<V,T> dropUntilLong(LongPredicate predicate);
+
+    /**
+     * takeUntil specialized for trees measured by a LongMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @param inclusive if true include the first element for which predicate is false in prefix
+     * @return prefix
+     */
+    public abstract FingerTree<V,T> takeUntilLong(LongPredicate predicate, boolean inclusive);
+
+    /**
+     * dropUntil specialized for trees measured by a LongMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @param inclusive if true include the last element for which predicate was true in suffix
+     * @return suffix
+     */
+    public abstract FingerTree<V,T> dropUntilLong(LongPredicate predicate, boolean inclusive);
+
+    protected abstract FingerTree<V,T> splitLeftLong(LongPredicate predicate, long initial, boolean inclusive);
+
+    protected abstract FingerTree<V,T> splitRightLong(LongPredicate predicate, long initial, boolean inclusive);
+
+    /**
+     * split specialized for trees measured by a LongMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @return pair containing prefix and suffix
+     */
+    public abstract Pair<FingerTree<V,T>, FingerTree<V,T>> splitLong(LongPredicate predicate);
+
+    protected abstract Split<V,T> splitTreeLong(LongPredicate predicate, long initial);
+
+    /**
+     * finds the first element e for which predicate.apply(measure of all elements up to and including e) is true
+     * without building any new trees
+     * @param predicate predicate on measure
+     * @return element and measure of all elements before it, or null if predicate.apply(tree.measure()) is false
+     */
+    public abstract @Nullable Lookup<V,T> lookup(Predicate<V> predicate);
+
+    protected abstract void lookup(Predicate<V> predicate, V initial, Lookup<V,?> result);
+
+    /**
+     * lookup specialized for trees measured by an IntValuedMeasured such as IntMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @return element and measure of all elements before it, or null if predicate is false for the whole tree
+     */
+    public abstract @Nullable IntLookup<T> lookupInt(IntPredicate predicate);
+
+    protected abstract void lookupInt(IntPredicate predicate, int initial, IntLookup<?> result);
+
+    /**
+     * lookup specialized for trees measured by a LongMeasured, the measure is accumulated without boxing
+     * @param predicate predicate on measure
+     * @return element and measure of all elements before it, or null if predicate is false for the whole tree
+     */
+    public abstract @Nullable LongLookup<T> lookupLong(LongPredicate predicate);
+
+    protected abstract void lookupLong(LongPredicate predicate, long initial, LongLookup<?> result);
+
     public abstract Iterator<T> iterator();
 
+    /**
+     * @return iterator over the elements of this tree from last to first
+     */
+    public abstract Iterator<T> reverseIterator();
+
+    /**
+     * applies action to each element of this tree in order by recursing through the tree directly
+     * @param action action to apply
+     */
+    @Override
+    public abstract void forEach(Consumer<? super T> action);
+
+    /**
+     * combines the elements of this tree from first to last without creating an iterator
+     * @param initial initial accumulator
+     * @param f applied to the accumulator and each element, returns the new accumulator
+     * @return final accumulator
+     */
+    public abstract <A> A foldLeft(A initial, BiFunction<A, ? super T, A> f);
+
+    /**
+     * combines the elements of this tree from first to last without creating an iterator or boxing the accumulator
+     * @param initial initial accumulator
+     * @param f applied to the accumulator and each element, returns the new accumulator
+     * @return final accumulator
+     */
+    public abstract int foldLeftInt(int initial, IntFolder<? super T> f);
+
+    /**
+     * combines the elements of this tree from first to last without creating an iterator or boxing the accumulator
+     * @param initial initial accumulator
+     * @param f applied to the accumulator and each element, returns the new accumulator
+     * @return final accumulator
+     */
+    public abstract long foldLeftLong(long initial, LongFolder<? super T> f);
+
+    /**
+     * combines the elements of this tree from last to first without creating an iterator
+     * @param initial initial accumulator
+     * @param f applied to the accumulator and each element, returns the new accumulator
+     * @return final accumulator
+     */
+    public abstract <A> A foldRight(A initial, BiFunction<A, ? super T, A> f);
+
+    /**
+     * combines the elements of this tree from last to first without creating an iterator or boxing the accumulator
+     * @param initial initial accumulator
+     * @param f applied to the accumulator and each element, returns the new accumulator
+     * @return final accumulator
+     */
+    public abstract int foldRightInt(int initial, IntFolder<? super T> f);
+
+    /**
+     * combines the elements of this tree from last to first without creating an iterator or boxing the accumulator
+     * @param initial initial accumulator
+     * @param f applied to the accumulator and each element, returns the new accumulator
+     * @return final accumulator
+     */
+    public abstract long foldRightLong(long initial, LongFolder<? super T> f);
+
+    /**
+     * creates a mutable builder initialized with the elements of this tree, this tree is not modified
+     * @return transient owned by the current thread
+     */
+    public TransientFingerTree<V,T> asTransient() {
+        return new TransientFingerTree<V, T>(this, Thread.currentThread());
+    }
+
+    /**
+     * splits along Deep prefix, middle and suffix and Node boundaries, sizes are estimated from the shape of the tree
+     * @return spliterator over the elements of this tree
+     * @see FingerTrees#countedSpliterator(FingerTree)
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new FingerTreeSpliterator<T>(this, false);
+    }
+
+    public interface IntFolder<T> {
+        public int apply(int acc, T t);
+    }
+
+    public interface LongFolder<T> {
+        public long apply(long acc, T t);
+    }
+
     public static abstract class Matcher<V,T,Z> {
 
         public Z empty() {
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * walks a finger tree from left to right a subtree at a time, the caller chooses whether to step over the next subtree
+ * whole or to descend into it
+ *
+ * two cursors over trees that share structure can be advanced together, skipping any subtree that is the same object
+ * in both at the same offset without visiting its elements. the pending subtrees are kept on an explicit stack, the
+ * next one on top. a level of 0 marks an element, k marks a node nested k deep and a tree whose elements are nodes
+ * nested k deep is stored as -(k+1).
+ *
+ * @param <V> measure type
+ * @param <T> element type
+ */
+public final class FingerTreeCursor<V,T> {
+
+    private final Measured<V,T> measured;
+
+    private Object[] items = new Object[16];
+    private int[] levels = new int[16];
+    private int size = 0;
+
+    public FingerTreeCursor(FingerTree<V,T> tree) {
+        measured = tree.measured();
+        push(tree, -1);
+    }
+
+    /**
+     * @return false once every element has been passed
+     */
+    public boolean hasNext() {
+        while (size > 0) {
+            final Object top = items[size-1];
+            if (levels[size-1] >= 0 || !(top instanceof Empty)) {
+                return true;
+            }
+            pop();
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the next item is a single element rather than a subtree
+     */
+    public boolean atElement() {
+        checkNext();
+        return levels[size-1] == 0;
+    }
+
+    /**
+     * @return the next element
+     * @throws IllegalStateException if the next item is a subtree
+     */
+    public T element() {
+        if (!atElement()) {
+            throw new IllegalStateException();
+        }
+        @SuppressWarnings("unchecked")
+        final T ret = (T) items[size-1];
+        return ret;
+    }
+
+    /**
+     * @return the next subtree or element, for comparing identity with the next item of another cursor
+     */
+    public Object peek() {
+        checkNext();
+        return items[size-1];
+    }
+
+    /**
+     * @return measure of the next subtree or element
+     */
+    @SuppressWarnings("unchecked")
+    public V measure() {
+        checkNext();
+        final Object top = items[size-1];
+        final int level = levels[size-1];
+        if (level == 0) {
+            return measured.measure((T) top);
+        }
+        if (level > 0) {
+            return ((Node<V, ?>) top).measure();
+        }
+        return ((FingerTree<V, ?>) top).measure();
+    }
+
+    /**
+     * passes the next subtree or element without visiting what it contains
+     */
+    public void skip() {
+        checkNext();
+        pop();
+    }
+
+    /**
+     * replaces the next subtree with its children
+     * @throws IllegalStateException if the next item is an element
+     */
+    public void descend() {
+        checkNext();
+        final Object top = items[size-1];
+        final int level = levels[size-1];
+        if (level == 0) {
+            throw new IllegalStateException();
+        }
+        pop();
+        if (level > 0) {
+            final Node<?, ?> node = (Node<?, ?>) top;
+            for (int i = node.size()-1; i >= 0; i--) {
+                push(node.get(i), level-1);
+            }
+            return;
+        }
+        FingerTree<?, ?> tree = (FingerTree<?, ?>) top;
+        while (tree instanceof FingerTreeThunk) {
+            tree = ((FingerTreeThunk<?, ?>) tree).getTree();
+        }
+        final int elementLevel = -level-1;
+        if (tree instanceof Single) {
+            push(((Single<?, ?>) tree).value(), elementLevel);
+        } else if (tree instanceof Deep) {
+            final Deep<?, ?> deep = (Deep<?, ?>) tree;
+            pushAll(deep.suffix(), elementLevel);
+            push(deep.middle(), -(elementLevel+1)-1);
+            pushAll(deep.prefix(), elementLevel);
+        }
+    }
+
+    private void checkNext() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    private void pushAll(Digit<?, ?> digit, int level) {
+        for (int i = digit.size()-1; i >= 0; i--) {
+            push(digit.get(i), level);
+        }
+    }
+
+    private void push(Object item, int level) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size*2);
+            levels = Arrays.copyOf(levels, size*2);
+        }
+        items[size] = item;
+        levels[size] = level;
+        size++;
+    }
+
+    private void pop() {
+        size--;
+        items[size] = null;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * iterator over the elements of a finger tree in either direction
+ *
+ * walks the spine of Deep trees and the nodes hanging off of it with explicit stacks instead of nesting an
+ * iterator per level, so iterating does not allocate per element. frame i of the spine stack holds the tree at
+ * nesting depth i, whose elements are nodes nested i deep. the node stack holds the nodes currently being expanded,
+ * the children of the top node are leaves once the node stack is as deep as the spine.
+ *
+ * @param <T> element type
+ */
+final class FingerTreeIterator<T> implements Iterator<T> {
+
+    private static final int FIRST_DIGIT = 0;
+    private static final int MIDDLE = 1;
+    private static final int LAST_DIGIT = 2;
+
+    private final boolean reverse;
+
+    private Object[] trees = new Object[8];
+    private int[] stages = new int[8];
+    private int[] positions = new int[8];
+    private int depth = -1;
+
+    private Object[] nodes = new Object[8];
+    private int[] nodePositions = new int[8];
+    private int nodeDepth = 0;
+
+    private Object next;
+    private boolean hasNext;
+
+    FingerTreeIterator(FingerTree<?, T> tree, boolean reverse) {
+        this.reverse = reverse;
+        enter(tree);
+        hasNext = computeNext();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
+        }
+        @SuppressWarnings("unchecked")
+        final T ret = (T) next;
+        hasNext = computeNext();
+        return ret;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private boolean computeNext() {
+        next = null;
+        while (true) {
+            if (nodeDepth > 0) {
+                if (stepNode()) {
+                    return true;
+                }
+            } else if (depth < 0) {
+                return false;
+            } else if (stepSpine()) {
+                return true;
+            }
+        }
+    }
+
+    private boolean stepNode() {
+        final int top = nodeDepth-1;
+        final Node<?, ?> node = (Node<?, ?>) nodes[top];
+        final int position = nodePositions[top];
+        final int size = node.size();
+        if (position == size) {
+            nodes[top] = null;
+            nodeDepth--;
+            return false;
+        }
+        nodePositions[top] = position+1;
+        final Object item = node.get(reverse ? size-1-position : position);
+        if (nodeDepth == depth) {
+            next = item;
+            return true;
+        }
+        pushNode(item);
+        return false;
+    }
+
+    private boolean stepSpine() {
+        final Object tree = trees[depth];
+        if (tree instanceof Single) {
+            if (stages[depth] == FIRST_DIGIT) {
+                stages[depth] = LAST_DIGIT;
+                return emit(((Single<?, ?>) tree).value());
+            }
+            pop();
+            return false;
+        }
+        final Deep<?, ?> deep = (Deep<?, ?>) tree;
+        switch (stages[depth]) {
+            case FIRST_DIGIT: {
+                final Digit<?, ?> digit = reverse ? deep.suffix() : deep.prefix();
+                final int position = positions[depth];
+                final int size = digit.size();
+                if (position < size) {
+                    positions[depth] = position+1;
+                    return emit(digit.get(reverse ? size-1-position : position));
+                }
+                stages[depth] = MIDDLE;
+                positions[depth] = 0;
+                enter(deep.middle());
+                return false;
+            }
+            case MIDDLE:
+                stages[depth] = LAST_DIGIT;
+                return false;
+            default: {
+                final Digit<?, ?> digit = reverse ? deep.prefix() : deep.suffix();
+                final int position = positions[depth];
+                final int size = digit.size();
+                if (position < size) {
+                    positions[depth] = position+1;
+                    return emit(digit.get(reverse ? size-1-position : position));
+                }
+                pop();
+                return false;
+            }
+        }
+    }
+
+    private boolean emit(Object item) {
+        if (depth == 0) {
+            next = item;
+            return true;
+        }
+        pushNode(item);
+        return false;
+    }
+
+    private void enter(FingerTree<?, ?> tree) {
+        while (tree instanceof FingerTreeThunk) {
+            tree = ((FingerTreeThunk<?, ?>) tree).getTree();
+        }
+        if (tree instanceof Empty) {
+            return;
+        }
+        depth++;
+        if (depth == trees.length) {
+            trees = Arrays.copyOf(trees, depth*2);
+            stages = Arrays.copyOf(stages, depth*2);
+            positions = Arrays.copyOf(positions, depth*2);
+        }
+        trees[depth] = tree;
+        stages[depth] = FIRST_DIGIT;
+        positions[depth] = 0;
+    }
+
+    private void pop() {
+        trees[depth] = null;
+        depth--;
+    }
+
+    private void pushNode(Object node) {
+        if (nodeDepth == nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodeDepth*2);
+            nodePositions = Arrays.copyOf(nodePositions, nodeDepth*2);
+        }
+        nodes[nodeDepth] = node;
+        nodePositions[nodeDepth] = 0;
+        nodeDepth++;
+    }
+}
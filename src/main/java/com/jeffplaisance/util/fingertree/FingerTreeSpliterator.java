@@ -0,0 +1,263 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * spliterator over the elements of a finger tree
+ *
+ * the remaining elements are kept as a list of pieces, each of which is either a tree or a single item at some
+ * nesting depth. trySplit cuts the piece list in two near the middle, expanding a Deep into its prefix, middle and
+ * suffix or a Node into its children whenever one piece holds too much of the remaining elements. when the measure
+ * of the tree is the element count, sizes are exact and the spliterator reports SIZED and SUBSIZED, otherwise sizes
+ * are estimated from the shape of the tree.
+ *
+ * @param <T> element type
+ */
+final class FingerTreeSpliterator<T> implements Spliterator<T> {
+
+    private static final long MAX_ESTIMATE = Long.MAX_VALUE/4;
+
+    /**
+     * remaining pieces in reverse order, the next piece is at the end
+     */
+    private final ArrayList<Piece> pieces;
+    private final boolean counted;
+    private long size;
+
+    FingerTreeSpliterator(FingerTree<?, T> tree, boolean counted) {
+        this.counted = counted;
+        pieces = Lists.newArrayList();
+        final Piece piece = newTree(tree, 0);
+        pieces.add(piece);
+        size = piece.size;
+    }
+
+    private FingerTreeSpliterator(ArrayList<Piece> pieces, boolean counted, long size) {
+        this.pieces = pieces;
+        this.counted = counted;
+        this.size = size;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (!pieces.isEmpty()) {
+            final Piece piece = pieces.remove(pieces.size()-1);
+            if (piece.tree || piece.level > 0) {
+                expand(piece, pieces);
+            } else {
+                size--;
+                @SuppressWarnings("unchecked")
+                final T t = (T) piece.value;
+                action.accept(t);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+        for (int i = pieces.size()-1; i >= 0; i--) {
+            final Piece piece = pieces.get(i);
+            if (piece.tree) {
+                ((FingerTree<?, ?>) piece.value).forEach(new Consumer<Object>() {
+                    @Override
+                    public void accept(Object o) {
+                        forEachItem(o, piece.level, action);
+                    }
+                });
+            } else {
+                forEachItem(piece.value, piece.level, action);
+            }
+        }
+        pieces.clear();
+        size = 0;
+    }
+
+    private static <T> void forEachItem(Object item, int level, Consumer<? super T> action) {
+        if (level == 0) {
+            @SuppressWarnings("unchecked")
+            final T t = (T) item;
+            action.accept(t);
+        } else {
+            final Node<?, ?> node = (Node<?, ?>) item;
+            for (int i = 0; i < node.size(); i++) {
+                forEachItem(node.get(i), level-1, action);
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        while (true) {
+            if (pieces.isEmpty()) {
+                return null;
+            }
+            if (pieces.size() == 1) {
+                final Piece piece = pieces.get(0);
+                if (!piece.tree && piece.level == 0) {
+                    return null;
+                }
+                pieces.clear();
+                expand(piece, pieces);
+                continue;
+            }
+            final long half = size/2;
+            long prefixSize = 0;
+            int i = pieces.size()-1;
+            while (i > 0 && prefixSize+pieces.get(i).size <= half) {
+                prefixSize += pieces.get(i).size;
+                i--;
+            }
+            final Piece straddling = pieces.get(i);
+            if (prefixSize < size/4 && size-prefixSize-straddling.size < size/4 && (straddling.tree || straddling.level > 0)) {
+                final List<Piece> after = Lists.newArrayList(pieces.subList(i+1, pieces.size()));
+                pieces.subList(i, pieces.size()).clear();
+                expand(straddling, pieces);
+                pieces.addAll(after);
+                continue;
+            }
+            if (i == pieces.size()-1) {
+                prefixSize += straddling.size;
+                i--;
+            }
+            final List<Piece> prefix = pieces.subList(i+1, pieces.size());
+            final FingerTreeSpliterator<T> ret = new FingerTreeSpliterator<T>(Lists.newArrayList(prefix), counted, prefixSize);
+            prefix.clear();
+            size -= prefixSize;
+            return ret;
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return counted ? ORDERED | IMMUTABLE | SIZED | SUBSIZED : ORDERED | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        throw new IllegalStateException();
+    }
+
+    /**
+     * adds the pieces that make up piece to pieces in reverse order
+     */
+    private void expand(Piece piece, List<Piece> pieces) {
+        if (piece.tree) {
+            FingerTree<?, ?> tree = (FingerTree<?, ?>) piece.value;
+            while (tree instanceof FingerTreeThunk) {
+                tree = ((FingerTreeThunk<?, ?>) tree).getTree();
+            }
+            if (tree instanceof Single) {
+                pieces.add(newItem(((Single<?, ?>) tree).value(), piece.level));
+            } else if (tree instanceof Deep) {
+                final Deep<?, ?> deep = (Deep<?, ?>) tree;
+                final Digit<?, ?> suffix = deep.suffix();
+                for (int i = suffix.size()-1; i >= 0; i--) {
+                    pieces.add(newItem(suffix.get(i), piece.level));
+                }
+                final Piece middle = newTree(deep.middle(), piece.level+1);
+                if (middle.size > 0) {
+                    pieces.add(middle);
+                }
+                final Digit<?, ?> prefix = deep.prefix();
+                for (int i = prefix.size()-1; i >= 0; i--) {
+                    pieces.add(newItem(prefix.get(i), piece.level));
+                }
+            }
+        } else {
+            final Node<?, ?> node = (Node<?, ?>) piece.value;
+            for (int i = node.size()-1; i >= 0; i--) {
+                pieces.add(newItem(node.get(i), piece.level-1));
+            }
+        }
+    }
+
+    private Piece newItem(Object item, int level) {
+        final long size;
+        if (level == 0) {
+            size = 1;
+        } else if (counted) {
+            size = (Integer) ((Node<?, ?>) item).measure();
+        } else {
+            size = estimate(level);
+        }
+        return new Piece(item, level, false, size);
+    }
+
+    private Piece newTree(FingerTree<?, ?> tree, int level) {
+        final long size = counted ? (Integer) tree.measure() : estimate(tree, level);
+        return new Piece(tree, level, true, size);
+    }
+
+    /**
+     * estimates the number of elements in a node nested level deep, most nodes are Node3s
+     */
+    private static long estimate(int level) {
+        long ret = 1;
+        for (int i = 0; i < level && ret < MAX_ESTIMATE; i++) {
+            ret *= 3;
+        }
+        return ret;
+    }
+
+    private static long estimate(FingerTree<?, ?> tree, int level) {
+        long ret = 0;
+        while (ret < MAX_ESTIMATE) {
+            while (tree instanceof FingerTreeThunk) {
+                tree = ((FingerTreeThunk<?, ?>) tree).getTree();
+            }
+            if (tree instanceof Single) {
+                return ret+estimate(level);
+            } else if (!(tree instanceof Deep)) {
+                return ret;
+            }
+            final Deep<?, ?> deep = (Deep<?, ?>) tree;
+            ret += (deep.prefix().size()+deep.suffix().size())*estimate(level);
+            tree = deep.middle();
+            level++;
+        }
+        return MAX_ESTIMATE;
+    }
+
+    private static final class Piece {
+        private final Object value;
+        private final int level;
+        private final boolean tree;
+        private final long size;
+
+        private Piece(Object value, int level, boolean tree, long size) {
+            this.value = value;
+            this.level = level;
+            this.tree = tree;
+            this.size = size;
+        }
+    }
+}
@@ -21,6 +21,10 @@ import com.google.common.base.Supplier;
 import com.jeffplaisance.util.Pair;
 
 import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
 
 public class FingerTreeThunk<V,T> extends FingerTree<V,T> {
 
@@ -31,7 +35,7 @@ public class FingerTreeThunk<V,T> extends FingerTree<V,T> {
         this.supplier = supplier;
     }
 
-    private FingerTree<V,T> getTree() {
+    FingerTree<V,T> getTree() {
         FingerTree<V,T> localTree = tree;
         if (localTree == null) {
             synchronized (this) {
@@ -51,6 +55,11 @@ public class FingerTreeThunk<V,T> extends FingerTree<V,T> {
         return getTree().match(matcher);
     }
 
+    @Override
+    Measured<V, T> measured() {
+        return getTree().measured();
+    }
+
     @Override
     public V measure() {
         return getTree().measure();
@@ -127,8 +136,146 @@ public class FingerTreeThunk<V,T> extends FingerTree<V,T> {
         return getTree().splitTree(predicate, initial);
     }
 
+    public FingerTree<V,T> takeUntilInt(IntPredicate predicate) {
+        return getTree().takeUntilInt(predicate);
+    }
+
+    public FingerTree<V,T> dropUntilInt(IntPredicate predicate) {
+        return getTree().dropUntilInt(predicate);
+    }
+
+    public FingerTree<V,T> takeUntilInt(IntPredicate predicate, boolean inclusive) {
+        return getTree().takeUntilInt(predicate, inclusive);
+    }
+
+    public FingerTree<V,T> dropUntilInt(IntPredicate predicate, boolean inclusive) {
+        return getTree().dropUntilInt(predicate, inclusive);
+    }
+
+    @Override
+    public FingerTree<V, T> splitLeftInt(IntPredicate predicate, int initial, boolean inclusive) {
+        return getTree().splitLeftInt(predicate, initial, inclusive);
+    }
+
+    @Override
+    public FingerTree<V, T> splitRightInt(IntPredicate predicate, int initial, boolean inclusive) {
+        return getTree().splitRightInt(predicate, initial, inclusive);
+    }
+
+    public Pair<FingerTree<V,T>,FingerTree<V,T>> splitInt(IntPredicate predicate) {
+        return getTree().splitInt(predicate);
+    }
+
+    public Split<V,T> splitTreeInt(IntPredicate predicate, int initial) {
+        return getTree().splitTreeInt(predicate, initial);
+    }
+
+    public FingerTree<V,T> takeUntilLong(LongPredicate predicate) {
+        return getTree().takeUntilLong(predicate);
+    }
+
+    public FingerTree<V,T> dropUntilLong(LongPredicate predicate) {
+        return getTree().dropUntilLong(predicate);
+    }
+
+    public FingerTree<V,T> takeUntilLong(LongPredicate predicate, boolean inclusive) {
+        return getTree().takeUntilLong(predicate, inclusive);
+    }
+
+    public FingerTree<V,T> dropUntilLong(LongPredicate predicate, boolean inclusive) {
+        return getTree().dropUntilLong(predicate, inclusive);
+    }
+
+    @Override
+    public FingerTree<V, T> splitLeftLong(LongPredicate predicate, long initial, boolean inclusive) {
+        return getTree().splitLeftLong(predicate, initial, inclusive);
+    }
+
+    @Override
+    public FingerTree<V, T> splitRightLong(LongPredicate predicate, long initial, boolean inclusive) {
+        return getTree().splitRightLong(predicate, initial, inclusive);
+    }
+
+    public Pair<FingerTree<V,T>,FingerTree<V,T>> splitLong(LongPredicate predicate) {
+        return getTree().splitLong(predicate);
+    }
+
+    public Split<V,T> splitTreeLong(LongPredicate predicate, long initial) {
+        return getTree().splitTreeLong(predicate, initial);
+    }
+
+    @Override
+    public Lookup<V,T> lookup(Predicate<V> predicate) {
+        return getTree().lookup(predicate);
+    }
+
+    @Override
+    protected void lookup(Predicate<V> predicate, V initial, Lookup<V,?> result) {
+        getTree().lookup(predicate, initial, result);
+    }
+
+    @Override
+    public IntLookup<T> lookupInt(IntPredicate predicate) {
+        return getTree().lookupInt(predicate);
+    }
+
+    @Override
+    protected void lookupInt(IntPredicate predicate, int initial, IntLookup<?> result) {
+        getTree().lookupInt(predicate, initial, result);
+    }
+
+    @Override
+    public LongLookup<T> lookupLong(LongPredicate predicate) {
+        return getTree().lookupLong(predicate);
+    }
+
+    @Override
+    protected void lookupLong(LongPredicate predicate, long initial, LongLookup<?> result) {
+        getTree().lookupLong(predicate, initial, result);
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        getTree().forEach(action);
+    }
+
+    @Override
+    public <A> A foldLeft(A initial, BiFunction<A, ? super T, A> f) {
+        return getTree().foldLeft(initial, f);
+    }
+
+    @Override
+    public int foldLeftInt(int initial, IntFolder<? super T> f) {
+        return getTree().foldLeftInt(initial, f);
+    }
+
+    @Override
+    public long foldLeftLong(long initial, LongFolder<? super T> f) {
+        return getTree().foldLeftLong(initial, f);
+    }
+
+    @Override
+    public <A> A foldRight(A initial, BiFunction<A, ? super T, A> f) {
+        return getTree().foldRight(initial, f);
+    }
+
+    @Override
+    public int foldRightInt(int initial, IntFolder<? super T> f) {
+        return getTree().foldRightInt(initial, f);
+    }
+
+    @Override
+    public long foldRightLong(long initial, LongFolder<? super T> f) {
+        return getTree().foldRightLong(initial, f);
+    }
+
     @Override
     public Iterator<T> iterator() {
         return getTree().iterator();
     }
+
+    @Override
+    public Iterator<T> reverseIterator() {
+        return getTree().reverseIterator();
+    }
 }
@@ -16,27 +16,133 @@
 
 package com.jeffplaisance.util.fingertree;
 
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
 
 public class FingerTrees {
+
+    /**
+     * builds a tree containing the elements of iterable in one linear pass
+     *
+     * RandomAccess lists are read in place, other collections are copied to an array once,
+     * any other iterable is copied to a list first
+     * @param iterable elements of new tree
+     * @param measured measured for new tree
+     * @return tree containing elements of iterable
+     */
     public static <V,T> FingerTree<V,T> toTree(Iterable<T> iterable, Measured<V,T> measured) {
-        FingerTree<V,T> ret = new Empty<V, T>(measured);
-        for (T t : iterable) {
-            ret = ret.addLast(t);
+        final List<T> list;
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            list = (List<T>) iterable;
+        } else if (iterable instanceof Collection) {
+            @SuppressWarnings("unchecked")
+            final List<T> copy = (List<T>) Arrays.asList(((Collection<T>) iterable).toArray());
+            list = copy;
+        } else {
+            list = Lists.newArrayList(iterable);
+        }
+        return build(list, 0, list.size(), measured);
+    }
+
+    /**
+     * creates a spliterator for a tree whose measure is the number of elements it contains, the spliterator
+     * reports exact sizes and is SIZED and SUBSIZED
+     * @param tree tree measured by element count
+     * @return spliterator over the elements of tree
+     */
+    public static <T> Spliterator<T> countedSpliterator(FingerTree<Integer,T> tree) {
+        return new FingerTreeSpliterator<T>(tree, true);
+    }
+
+    /**
+     * builds a tree containing the elements of array in one linear pass
+     * @param array elements of new tree
+     * @param measured measured for new tree
+     * @return tree containing elements of array
+     */
+    public static <V,T> FingerTree<V,T> fromArray(T[] array, Measured<V,T> measured) {
+        return build(Arrays.asList(array), 0, array.length, measured);
+    }
+
+    /**
+     * builds a tree directly in its final shape, the elements between a prefix and suffix of 3 or 4 elements
+     * are grouped into Node3s which recursively become the elements of the middle tree
+     */
+    static <V,T> FingerTree<V,T> build(List<T> ts, int from, int to, Measured<V,T> measured) {
+        final int size = to-from;
+        if (size == 0) {
+            return new Empty<V, T>(measured);
+        }
+        if (size == 1) {
+            return new Single<V, T>(ts.get(from), measured);
+        }
+        if (size <= 8) {
+            final int mid = from+size/2;
+            return new Deep<V, T>(digit(ts, from, mid, measured), new Empty<V, Node<V, T>>(measured.nodeMeasured()), digit(ts, mid, to, measured), measured);
+        }
+        final int prefixSize = prefixSize(size);
+        final int suffixSize = suffixSize(size);
+        final int middleEnd = to-suffixSize;
+        final List<Node<V,T>> nodes = Lists.newArrayListWithCapacity((middleEnd-from-prefixSize)/3);
+        for (int i = from+prefixSize; i < middleEnd; i += 3) {
+            nodes.add(new Node3<V, T>(ts.get(i), ts.get(i+1), ts.get(i+2), measured));
+        }
+        return new Deep<V, T>(
+                digit(ts, from, from+prefixSize, measured),
+                build(nodes, 0, nodes.size(), measured.nodeMeasured()),
+                digit(ts, middleEnd, to, measured),
+                measured
+        );
+    }
+
+    /**
+     * size of the prefix build uses for a tree of more than 8 elements, chosen so that the middle is a multiple of 3
+     */
+    static int prefixSize(int size) {
+        return (size-6) % 3 == 0 ? 3 : 4;
+    }
+
+    static int suffixSize(int size) {
+        return (size-6) % 3 == 2 ? 4 : 3;
+    }
+
+    static <V,T> Digit<V,T> digit(List<T> ts, int from, int to, Measured<V,T> measured) {
+        switch (to-from) {
+            case 1:
+                return new One<V, T>(ts.get(from), measured);
+            case 2:
+                return new Two<V, T>(ts.get(from), ts.get(from+1), measured);
+            case 3:
+                return new Three<V, T>(ts.get(from), ts.get(from+1), ts.get(from+2), measured);
+            case 4:
+                return new Four<V, T>(ts.get(from), ts.get(from+1), ts.get(from+2), ts.get(from+3), measured);
+            default:
+                throw new IllegalArgumentException("digit size must be between 1 and 4");
         }
-        return ret;
     }
 
     public static <V,T> FingerTree<V,T> prepend(ReverseIterable<T> rit, FingerTree<V,T> tree) {
         final Iterator<T> iterator = rit.reverseIterator();
         FingerTree<V, T> ret = tree;
         while (iterator.hasNext()) {
-            ret = tree.addFirst(iterator.next());
+            ret = ret.addFirst(iterator.next());
         }
         return ret;
     }
 
+    /**
+     * appends the elements of it to tree, collections are built into a tree in one pass and then concatenated
+     */
     public static <V,T> FingerTree<V,T> append(FingerTree<V,T> tree, Iterable<T> it) {
+        if (it instanceof Collection) {
+            return tree.concat(toTree(it, tree.measured()));
+        }
         FingerTree<V, T> ret = tree;
         for (T t : it) {
             ret = ret.addLast(t);
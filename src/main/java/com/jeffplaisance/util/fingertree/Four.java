@@ -46,6 +46,27 @@ public class Four<V, T> implements Digit<V, T> {
         return measured.sum(measured.sum(measured.sum(measured.measure(a), measured.measure(b)), measured.measure(c)), measured.measure(d));
     }
 
+    @Override
+    public int size() {
+        return 4;
+    }
+
+    @Override
+    public T get(int index) {
+        switch (index) {
+            case 0:
+                return a;
+            case 1:
+                return b;
+            case 2:
+                return c;
+            case 3:
+                return d;
+            default:
+                throw new IndexOutOfBoundsException();
+        }
+    }
+
     @Override
     public Iterator<T> reverseIterator() {
         return Iterators.forArray(d, c, b, a);
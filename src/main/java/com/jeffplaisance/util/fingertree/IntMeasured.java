@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+/**
+ * Measured for int valued measures
+ *
+ * implementations provide primitive sumInt, measureInt and zeroInt, the boxed methods from Measured delegate to them.
+ * trees using an IntMeasured can be split with splitInt, takeUntilInt and dropUntilInt, which accumulates the measure without boxing.
+ *
+ * @param <T> element type
+ */
+public abstract class IntMeasured<T> extends IntValuedMeasured<Integer, T> {
+
+    @Override
+    public final Integer sum(Integer a, Integer b) {
+        return sumInt(a, b);
+    }
+
+    @Override
+    public final Integer measure(T a) {
+        return measureInt(a);
+    }
+
+    @Override
+    public final Integer zero() {
+        return zeroInt();
+    }
+
+    @Override
+    public final int intValue(Integer measure) {
+        return measure;
+    }
+
+    @Override
+    Measured<Integer, Node<Integer, T>> newNodeMeasured() {
+        return new IntNodeMeasured<T>(this);
+    }
+
+    public static final class IntNodeMeasured<T> extends IntMeasured<Node<Integer, T>> {
+
+        private final IntMeasured<T> measured;
+
+        public IntNodeMeasured(IntMeasured<T> measured) {
+            this.measured = measured;
+        }
+
+        @Override
+        public int sumInt(int a, int b) {
+            return measured.sumInt(a, b);
+        }
+
+        @Override
+        public int measureInt(Node<Integer, T> a) {
+            return a.measure();
+        }
+
+        @Override
+        public int zeroInt() {
+            return measured.zeroInt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+/**
+ * Measured whose measures carry an int, such as a length kept next to other cached data
+ *
+ * splitInt, takeUntilInt, dropUntilInt and lookupInt accumulate the int with sumInt and measureInt without building
+ * measures. implementations must keep intValue(sum(a, b)) == sumInt(intValue(a), intValue(b)),
+ * intValue(measure(t)) == measureInt(t) and intValue(zero()) == zeroInt().
+ *
+ * @param <V> measure type
+ * @param <T> element type
+ */
+public abstract class IntValuedMeasured<V,T> extends Measured<V,T> {
+
+    public abstract int sumInt(int a, int b);
+
+    public abstract int measureInt(T a);
+
+    public abstract int zeroInt();
+
+    /**
+     * @return the int carried by measure
+     */
+    public abstract int intValue(V measure);
+
+    @Override
+    Measured<V, Node<V, T>> newNodeMeasured() {
+        return new IntValuedNodeMeasured<V, T>(this);
+    }
+
+    public static final class IntValuedNodeMeasured<V,T> extends IntValuedMeasured<V, Node<V,T>> {
+
+        private final IntValuedMeasured<V, T> measured;
+
+        public IntValuedNodeMeasured(IntValuedMeasured<V, T> measured) {
+            this.measured = measured;
+        }
+
+        @Override
+        public V sum(V a, V b) {
+            return measured.sum(a, b);
+        }
+
+        @Override
+        public V measure(Node<V, T> a) {
+            return a.measure();
+        }
+
+        @Override
+        public V zero() {
+            return measured.zero();
+        }
+
+        @Override
+        public int sumInt(int a, int b) {
+            return measured.sumInt(a, b);
+        }
+
+        @Override
+        public int measureInt(Node<V, T> a) {
+            return measured.intValue(a.measure());
+        }
+
+        @Override
+        public int zeroInt() {
+            return measured.zeroInt();
+        }
+
+        @Override
+        public int intValue(V measure) {
+            return measured.intValue(measure);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+/**
+ * Measured for long valued measures
+ *
+ * implementations provide primitive sumLong, measureLong and zeroLong, the boxed methods from Measured delegate to them.
+ * trees using a LongMeasured can be split with splitLong, takeUntilLong and dropUntilLong, which accumulates the measure without boxing.
+ *
+ * @param <T> element type
+ */
+public abstract class LongMeasured<T> extends Measured<Long, T> {
+
+    public abstract long sumLong(long a, long b);
+
+    public abstract long measureLong(T a);
+
+    public abstract long zeroLong();
+
+    @Override
+    public final Long sum(Long a, Long b) {
+        return sumLong(a, b);
+    }
+
+    @Override
+    public final Long measure(T a) {
+        return measureLong(a);
+    }
+
+    @Override
+    public final Long zero() {
+        return zeroLong();
+    }
+
+    @Override
+    Measured<Long, Node<Long, T>> newNodeMeasured() {
+        return new LongNodeMeasured<T>(this);
+    }
+
+    public static final class LongNodeMeasured<T> extends LongMeasured<Node<Long, T>> {
+
+        private final LongMeasured<T> measured;
+
+        public LongNodeMeasured(LongMeasured<T> measured) {
+            this.measured = measured;
+        }
+
+        @Override
+        public long sumLong(long a, long b) {
+            return measured.sumLong(a, b);
+        }
+
+        @Override
+        public long measureLong(Node<Long, T> a) {
+            return a.measure();
+        }
+
+        @Override
+        public long zeroLong() {
+            return measured.zeroLong();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+/**
+ * result of FingerTree.lookup
+ *
+ * holds the element that was found and the measure of all elements before it
+ *
+ * @param <V> measure type
+ * @param <T> element type
+ */
+public final class Lookup<V,T> {
+
+    private V measure;
+    private Object element;
+
+    Lookup() {}
+
+    void set(V measure, Object element) {
+        this.measure = measure;
+        this.element = element;
+    }
+
+    Object element() {
+        return element;
+    }
+
+    /**
+     * @return measure of all elements before the element
+     */
+    public V getMeasure() {
+        return measure;
+    }
+
+    /**
+     * @return element for which the predicate first became true
+     */
+    @SuppressWarnings("unchecked")
+    public T getElement() {
+        return (T) element;
+    }
+}
@@ -30,13 +30,17 @@ public abstract class Measured<V,T> {
         if (nodeMeasured == null) {
             synchronized (this) {
                 if (nodeMeasured == null) {
-                    nodeMeasured = new NodeMeasured<V, T>(this);
+                    nodeMeasured = newNodeMeasured();
                 }
             }
         }
         return nodeMeasured;
     }
 
+    Measured<V, Node<V,T>> newNodeMeasured() {
+        return new NodeMeasured<V, T>(this);
+    }
+
     public static final class NodeMeasured<V,T> extends Measured<V, Node<V,T>> {
 
         private final Measured<V, T> measured;
@@ -25,6 +25,17 @@ public interface Node<V,T> extends IterableReverseIterable<T> {
 
     public Digit<V,T> toDigit();
 
+    /**
+     * @return number of elements in this node, 2 or 3
+     */
+    public int size();
+
+    /**
+     * @param index index of element, must be less than size()
+     * @return element at index
+     */
+    public T get(int index);
+
     public Iterator<T> reverseIterator();
 
     public static abstract class Matcher<T,Z> {
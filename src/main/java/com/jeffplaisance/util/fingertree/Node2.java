@@ -49,6 +49,23 @@ public class Node2<V,T> implements Node<V,T> {
         return new Two<V, T>(a, b, measured);
     }
 
+    @Override
+    public int size() {
+        return 2;
+    }
+
+    @Override
+    public T get(int index) {
+        switch (index) {
+            case 0:
+                return a;
+            case 1:
+                return b;
+            default:
+                throw new IndexOutOfBoundsException();
+        }
+    }
+
     @Override
     public Iterator<T> reverseIterator() {
         return Iterators.forArray(b, a);
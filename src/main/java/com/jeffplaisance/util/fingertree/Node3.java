@@ -51,6 +51,25 @@ public class Node3<V,T> implements Node<V,T> {
         return new Three<V, T>(a, b, c, measured);
     }
 
+    @Override
+    public int size() {
+        return 3;
+    }
+
+    @Override
+    public T get(int index) {
+        switch (index) {
+            case 0:
+                return a;
+            case 1:
+                return b;
+            case 2:
+                return c;
+            default:
+                throw new IndexOutOfBoundsException();
+        }
+    }
+
     @Override
     public Iterator<T> reverseIterator() {
         return Iterators.forArray(c, b, a);
@@ -40,6 +40,19 @@ public class One<V, T> implements Digit<V, T> {
         return measured.measure(a);
     }
 
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index != 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        return a;
+    }
+
     @Override
     public Iterator<T> reverseIterator() {
         return iterator();
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * fork/join implementations of bulk operations on finger trees
+ *
+ * the middle of every Deep is handled by its own task, and nodes holding more than threshold elements are split
+ * into one task per child, so work is divided along the structure of the tree without copying it. node sizes are
+ * estimated as 3^depth since bulk built trees are made of Node3s.
+ */
+public final class ParallelFingerTrees {
+
+    public static final int DEFAULT_THRESHOLD = 8192;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * nodes nested deeper than this are processed in parallel
+     */
+    private final int sequentialLevel;
+
+    /**
+     * uses the common pool and DEFAULT_THRESHOLD
+     */
+    public ParallelFingerTrees() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool pool to run tasks in
+     * @param threshold approximate number of elements below which a task does its work sequentially
+     */
+    public ParallelFingerTrees(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+        int level = 0;
+        for (long size = 3; size <= threshold; size *= 3) {
+            level++;
+        }
+        sequentialLevel = level;
+    }
+
+    /**
+     * combines the measures of the elements of tree under monoid, which need not be the measured of tree
+     * @param tree tree to reduce
+     * @param monoid measure for each element and associative sum
+     * @return sum of the measures of all elements of tree in order, or monoid.zero() if tree is empty
+     */
+    public <R,T> R reduce(FingerTree<?,T> tree, Measured<R,? super T> monoid) {
+        @SuppressWarnings("unchecked")
+        final Measured<R, Object> erased = (Measured<R, Object>) monoid;
+        return pool.invoke(new ReduceTree<R>(tree, 0, erased));
+    }
+
+    /**
+     * applies f to every element of tree, the result has the same shape as tree
+     * @param tree tree to map
+     * @param f function applied to each element
+     * @param measured measured for the new tree
+     * @return tree of the results of f in the same order
+     */
+    public <V,T,R> FingerTree<V,R> map(FingerTree<?,T> tree, Function<? super T, ? extends R> f, Measured<V,R> measured) {
+        int depth = 0;
+        for (FingerTree<?, ?> t = unwrap(tree); t instanceof Deep; t = unwrap(((Deep<?, ?>) t).middle())) {
+            depth++;
+        }
+        final Measured<Object, Object>[] measureds = newMeasuredArray(depth+1);
+        measureds[0] = erase(measured);
+        for (int i = 1; i <= depth; i++) {
+            measureds[i] = erase(measureds[i-1].nodeMeasured());
+        }
+        @SuppressWarnings("unchecked")
+        final Function<Object, Object> erased = (Function<Object, Object>) f;
+        @SuppressWarnings("unchecked")
+        final FingerTree<V, R> ret = (FingerTree<V, R>) (FingerTree<?, ?>) pool.invoke(new MapTree(tree, 0, erased, measureds));
+        return ret;
+    }
+
+    /**
+     * builds a tree containing the elements of array, grouping elements into nodes in parallel
+     * @param array elements of new tree
+     * @param measured measured for new tree
+     * @return tree containing elements of array
+     * @see FingerTrees#fromArray(Object[], Measured)
+     */
+    public <V,T> FingerTree<V,T> fromArray(T[] array, Measured<V,T> measured) {
+        return pool.invoke(new Build<V, T>(Arrays.asList(array), 0, array.length, measured));
+    }
+
+    private static FingerTree<?, ?> unwrap(FingerTree<?, ?> tree) {
+        while (tree instanceof FingerTreeThunk) {
+            tree = ((FingerTreeThunk<?, ?>) tree).getTree();
+        }
+        return tree;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Measured<Object, Object> erase(Measured<?, ?> measured) {
+        return (Measured<Object, Object>) measured;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Measured<Object, Object>[] newMeasuredArray(int size) {
+        return new Measured[size];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <V, T> Node<V, T>[] newNodeArray(int size) {
+        return new Node[size];
+    }
+
+    private final class ReduceTree<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FingerTree<?, ?> tree;
+        private final int level;
+        private final Measured<R, Object> monoid;
+
+        private ReduceTree(FingerTree<?, ?> tree, int level, Measured<R, Object> monoid) {
+            this.tree = tree;
+            this.level = level;
+            this.monoid = monoid;
+        }
+
+        @Override
+        protected R compute() {
+            final FingerTree<?, ?> tree = unwrap(this.tree);
+            if (tree instanceof Single) {
+                return new ReduceItem<R>(((Single<?, ?>) tree).value(), level, monoid).compute();
+            } else if (!(tree instanceof Deep)) {
+                return monoid.zero();
+            }
+            final Deep<?, ?> deep = (Deep<?, ?>) tree;
+            final ReduceTree<R> middle = new ReduceTree<R>(deep.middle(), level+1, monoid);
+            middle.fork();
+            final R prefix = reduceDigit(deep.prefix());
+            final R suffix = reduceDigit(deep.suffix());
+            return monoid.sum(monoid.sum(prefix, middle.join()), suffix);
+        }
+
+        private R reduceDigit(Digit<?, ?> digit) {
+            R ret = new ReduceItem<R>(digit.get(0), level, monoid).compute();
+            for (int i = 1; i < digit.size(); i++) {
+                ret = monoid.sum(ret, new ReduceItem<R>(digit.get(i), level, monoid).compute());
+            }
+            return ret;
+        }
+    }
+
+    private final class ReduceItem<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object item;
+        private final int level;
+        private final Measured<R, Object> monoid;
+
+        private ReduceItem(Object item, int level, Measured<R, Object> monoid) {
+            this.item = item;
+            this.level = level;
+            this.monoid = monoid;
+        }
+
+        @Override
+        protected R compute() {
+            if (level <= sequentialLevel) {
+                return reduce(item, level);
+            }
+            final Node<?, ?> node = (Node<?, ?>) item;
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            final ReduceItem<R>[] tasks = new ReduceItem[node.size()];
+            for (int i = tasks.length-1; i > 0; i--) {
+                tasks[i] = new ReduceItem<R>(node.get(i), level-1, monoid);
+                tasks[i].fork();
+            }
+            R ret = new ReduceItem<R>(node.get(0), level-1, monoid).compute();
+            for (int i = 1; i < tasks.length; i++) {
+                ret = monoid.sum(ret, tasks[i].join());
+            }
+            return ret;
+        }
+
+        private R reduce(Object item, int level) {
+            if (level == 0) {
+                return monoid.measure(item);
+            }
+            final Node<?, ?> node = (Node<?, ?>) item;
+            R ret = reduce(node.get(0), level-1);
+            for (int i = 1; i < node.size(); i++) {
+                ret = monoid.sum(ret, reduce(node.get(i), level-1));
+            }
+            return ret;
+        }
+    }
+
+    private final class MapTree extends RecursiveTask<FingerTree<Object, Object>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FingerTree<?, ?> tree;
+        private final int level;
+        private final Function<Object, Object> f;
+        private final Measured<Object, Object>[] measureds;
+
+        private MapTree(FingerTree<?, ?> tree, int level, Function<Object, Object> f, Measured<Object, Object>[] measureds) {
+            this.tree = tree;
+            this.level = level;
+            this.f = f;
+            this.measureds = measureds;
+        }
+
+        @Override
+        protected FingerTree<Object, Object> compute() {
+            final FingerTree<?, ?> tree = unwrap(this.tree);
+            final Measured<Object, Object> measured = measureds[level];
+            if (tree instanceof Single) {
+                return new Single<Object, Object>(new MapItem(((Single<?, ?>) tree).value(), level, f, measureds).compute(), measured);
+            } else if (!(tree instanceof Deep)) {
+                return new Empty<Object, Object>(measured);
+            }
+            final Deep<?, ?> deep = (Deep<?, ?>) tree;
+            final MapTree middle = new MapTree(deep.middle(), level+1, f, measureds);
+            middle.fork();
+            final Digit<Object, Object> prefix = mapDigit(deep.prefix());
+            final Digit<Object, Object> suffix = mapDigit(deep.suffix());
+            @SuppressWarnings("unchecked")
+            final FingerTree<Object, Node<Object, Object>> nodes = (FingerTree<Object, Node<Object, Object>>) (FingerTree<?, ?>) middle.join();
+            final Deep<Object, Object> ret = new Deep<Object, Object>(prefix, nodes, suffix, measured);
+            ret.measure();
+            return ret;
+        }
+
+        private Digit<Object, Object> mapDigit(Digit<?, ?> digit) {
+            final Object[] items = new Object[digit.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = new MapItem(digit.get(i), level, f, measureds).compute();
+            }
+            return FingerTrees.digit(Arrays.asList(items), 0, items.length, measureds[level]);
+        }
+    }
+
+    private final class MapItem extends RecursiveTask<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object item;
+        private final int level;
+        private final Function<Object, Object> f;
+        private final Measured<Object, Object>[] measureds;
+
+        private MapItem(Object item, int level, Function<Object, Object> f, Measured<Object, Object>[] measureds) {
+            this.item = item;
+            this.level = level;
+            this.f = f;
+            this.measureds = measureds;
+        }
+
+        @Override
+        protected Object compute() {
+            if (level <= sequentialLevel) {
+                return map(item, level);
+            }
+            final Node<?, ?> node = (Node<?, ?>) item;
+            final MapItem[] tasks = new MapItem[node.size()];
+            for (int i = tasks.length-1; i > 0; i--) {
+                tasks[i] = new MapItem(node.get(i), level-1, f, measureds);
+                tasks[i].fork();
+            }
+            final Object[] children = new Object[tasks.length];
+            children[0] = new MapItem(node.get(0), level-1, f, measureds).compute();
+            for (int i = 1; i < tasks.length; i++) {
+                children[i] = tasks[i].join();
+            }
+            return newNode(children, measureds[level-1]);
+        }
+
+        private Object map(Object item, int level) {
+            if (level == 0) {
+                return f.apply(item);
+            }
+            final Node<?, ?> node = (Node<?, ?>) item;
+            final Object[] children = new Object[node.size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = map(node.get(i), level-1);
+            }
+            return newNode(children, measureds[level-1]);
+        }
+    }
+
+    private static Node<Object, Object> newNode(Object[] children, Measured<Object, Object> measured) {
+        return children.length == 2
+                ? new Node2<Object, Object>(children[0], children[1], measured)
+                : new Node3<Object, Object>(children[0], children[1], children[2], measured);
+    }
+
+    private final class Build<V,T> extends RecursiveTask<FingerTree<V,T>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> ts;
+        private final int from;
+        private final int to;
+        private final Measured<V, T> measured;
+
+        private Build(List<T> ts, int from, int to, Measured<V, T> measured) {
+            this.ts = ts;
+            this.from = from;
+            this.to = to;
+            this.measured = measured;
+        }
+
+        @Override
+        protected FingerTree<V, T> compute() {
+            final int size = to-from;
+            if (size <= threshold) {
+                return FingerTrees.build(ts, from, to, measured);
+            }
+            final int prefixSize = FingerTrees.prefixSize(size);
+            final int middleEnd = to-FingerTrees.suffixSize(size);
+            final Node<V, T>[] nodes = newNodeArray((middleEnd-from-prefixSize)/3);
+            new BuildNodes<V, T>(ts, from+prefixSize, nodes, 0, nodes.length, measured).compute();
+            return new Deep<V, T>(
+                    FingerTrees.digit(ts, from, from+prefixSize, measured),
+                    new Build<V, Node<V, T>>(Arrays.asList(nodes), 0, nodes.length, measured.nodeMeasured()).compute(),
+                    FingerTrees.digit(ts, middleEnd, to, measured),
+                    measured
+            );
+        }
+    }
+
+    private final class BuildNodes<V,T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> ts;
+        private final int offset;
+        private final Node<V, T>[] nodes;
+        private final int from;
+        private final int to;
+        private final Measured<V, T> measured;
+
+        /**
+         * fills nodes[from, to) with Node3s of the elements of ts starting at offset+3*from
+         */
+        private BuildNodes(List<T> ts, int offset, Node<V, T>[] nodes, int from, int to, Measured<V, T> measured) {
+            this.ts = ts;
+            this.offset = offset;
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.measured = measured;
+        }
+
+        @Override
+        protected void compute() {
+            if ((to-from)*3 <= threshold) {
+                for (int i = from, j = offset+3*from; i < to; i++, j += 3) {
+                    nodes[i] = new Node3<V, T>(ts.get(j), ts.get(j+1), ts.get(j+2), measured);
+                }
+            } else {
+                final int mid = (from+to) >>> 1;
+                ForkJoinTask.invokeAll(
+                        new BuildNodes<V, T>(ts, offset, nodes, from, mid, measured),
+                        new BuildNodes<V, T>(ts, offset, nodes, mid, to, measured)
+                );
+            }
+        }
+    }
+}
@@ -21,6 +21,10 @@ import com.google.common.collect.Iterators;
 import com.jeffplaisance.util.Pair;
 
 import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
 
 public final class Single<V,T> extends FingerTree<V,T> {
 
@@ -39,6 +43,11 @@ public final class Single<V,T> extends FingerTree<V,T> {
         return matcher.single(a);
     }
 
+    @Override
+    Measured<V, T> measured() {
+        return measured;
+    }
+
     @Override
     public V measure() {
         return measure;
@@ -130,11 +139,202 @@ public final class Single<V,T> extends FingerTree<V,T> {
         return new Split<V, T>(empty, a, empty);
     }
 
+    @Override
+    public FingerTree<V, T> takeUntilInt(IntPredicate predicate) {
+        return splitLeftInt(predicate, intMeasured().zeroInt(), false);
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilInt(IntPredicate predicate) {
+        return splitRightInt(predicate, intMeasured().zeroInt(), true);
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilInt(IntPredicate predicate, boolean inclusive) {
+        return splitLeftInt(predicate, intMeasured().zeroInt(), inclusive);
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilInt(IntPredicate predicate, boolean inclusive) {
+        return splitRightInt(predicate, intMeasured().zeroInt(), inclusive);
+    }
+
+    @Override
+    protected FingerTree<V, T> splitLeftInt(IntPredicate predicate, int initial, boolean inclusive) {
+        if (inclusive) return this;
+        return predicate.test(intMeasured().sumInt(initial, intMeasured().intValue(measure))) ? new Empty<V, T>(measured) : this;
+    }
+
+    @Override
+    protected FingerTree<V, T> splitRightInt(IntPredicate predicate, int initial, boolean inclusive) {
+        if (inclusive) return this;
+        return predicate.test(intMeasured().sumInt(initial, intMeasured().intValue(measure))) ? this : new Empty<V, T>(measured);
+    }
+
+    @Override
+    public Pair<FingerTree<V, T>, FingerTree<V, T>> splitInt(IntPredicate predicate) {
+        if (predicate.test(intMeasured().intValue(measure))) {
+            return Pair.<FingerTree<V, T>, FingerTree<V, T>>of(new Empty<V, T>(measured), this);
+        }
+        return Pair.<FingerTree<V, T>, FingerTree<V, T>>of(this, new Empty<V, T>(measured));
+    }
+
+    @Override
+    public Split<V, T> splitTreeInt(IntPredicate predicate, int initial) {
+        final Empty<V, T> empty = new Empty<>(measured);
+        return new Split<V, T>(empty, a, empty);
+    }
+
+    @SuppressWarnings("unchecked")
+    private IntValuedMeasured<V, T> intMeasured() {
+        return (IntValuedMeasured<V, T>) measured;
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilLong(LongPredicate predicate) {
+        return splitLeftLong(predicate, longMeasured().zeroLong(), false);
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilLong(LongPredicate predicate) {
+        return splitRightLong(predicate, longMeasured().zeroLong(), true);
+    }
+
+    @Override
+    public FingerTree<V, T> takeUntilLong(LongPredicate predicate, boolean inclusive) {
+        return splitLeftLong(predicate, longMeasured().zeroLong(), inclusive);
+    }
+
+    @Override
+    public FingerTree<V, T> dropUntilLong(LongPredicate predicate, boolean inclusive) {
+        return splitRightLong(predicate, longMeasured().zeroLong(), inclusive);
+    }
+
+    @Override
+    protected FingerTree<V, T> splitLeftLong(LongPredicate predicate, long initial, boolean inclusive) {
+        if (inclusive) return this;
+        return predicate.test(longMeasured().sumLong(initial, (Long) measure)) ? new Empty<V, T>(measured) : this;
+    }
+
+    @Override
+    protected FingerTree<V, T> splitRightLong(LongPredicate predicate, long initial, boolean inclusive) {
+        if (inclusive) return this;
+        return predicate.test(longMeasured().sumLong(initial, (Long) measure)) ? this : new Empty<V, T>(measured);
+    }
+
+    @Override
+    public Pair<FingerTree<V, T>, FingerTree<V, T>> splitLong(LongPredicate predicate) {
+        if (predicate.test((Long) measure)) {
+            return Pair.<FingerTree<V, T>, FingerTree<V, T>>of(new Empty<V, T>(measured), this);
+        }
+        return Pair.<FingerTree<V, T>, FingerTree<V, T>>of(this, new Empty<V, T>(measured));
+    }
+
+    @Override
+    public Split<V, T> splitTreeLong(LongPredicate predicate, long initial) {
+        final Empty<V, T> empty = new Empty<>(measured);
+        return new Split<V, T>(empty, a, empty);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LongMeasured<T> longMeasured() {
+        return (LongMeasured<T>) measured;
+    }
+
+    @Override
+    public Lookup<V, T> lookup(Predicate<V> predicate) {
+        if (predicate.apply(measure)) {
+            final Lookup<V, T> result = new Lookup<V, T>();
+            result.set(measured.zero(), a);
+            return result;
+        }
+        return null;
+    }
+
+    @Override
+    protected void lookup(Predicate<V> predicate, V initial, Lookup<V, ?> result) {
+        result.set(initial, a);
+    }
+
+    @Override
+    public IntLookup<T> lookupInt(IntPredicate predicate) {
+        if (predicate.test(intMeasured().intValue(measure))) {
+            final IntLookup<T> result = new IntLookup<T>();
+            result.set(intMeasured().zeroInt(), a);
+            return result;
+        }
+        return null;
+    }
+
+    @Override
+    protected void lookupInt(IntPredicate predicate, int initial, IntLookup<?> result) {
+        result.set(initial, a);
+    }
+
+    @Override
+    public LongLookup<T> lookupLong(LongPredicate predicate) {
+        if (predicate.test((Long) measure)) {
+            final LongLookup<T> result = new LongLookup<T>();
+            result.set(longMeasured().zeroLong(), a);
+            return result;
+        }
+        return null;
+    }
+
+    @Override
+    protected void lookupLong(LongPredicate predicate, long initial, LongLookup<?> result) {
+        result.set(initial, a);
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        action.accept(a);
+    }
+
+    @Override
+    public <A> A foldLeft(A initial, BiFunction<A, ? super T, A> f) {
+        return f.apply(initial, a);
+    }
+
+    @Override
+    public int foldLeftInt(int initial, IntFolder<? super T> f) {
+        return f.apply(initial, a);
+    }
+
+    @Override
+    public long foldLeftLong(long initial, LongFolder<? super T> f) {
+        return f.apply(initial, a);
+    }
+
+    @Override
+    public <A> A foldRight(A initial, BiFunction<A, ? super T, A> f) {
+        return f.apply(initial, a);
+    }
+
+    @Override
+    public int foldRightInt(int initial, IntFolder<? super T> f) {
+        return f.apply(initial, a);
+    }
+
+    @Override
+    public long foldRightLong(long initial, LongFolder<? super T> f) {
+        return f.apply(initial, a);
+    }
+
     @Override
     public Iterator<T> iterator() {
         return Iterators.singletonIterator(a);
     }
 
+    @Override
+    public Iterator<T> reverseIterator() {
+        return Iterators.singletonIterator(a);
+    }
+
+    T value() {
+        return a;
+    }
+
     @Override
     public String toString() {
         return "Single{" +
@@ -44,6 +44,25 @@ public class Three<V, T> implements Digit<V, T> {
         return measured.sum(measured.sum(measured.measure(a), measured.measure(b)), measured.measure(c));
     }
 
+    @Override
+    public int size() {
+        return 3;
+    }
+
+    @Override
+    public T get(int index) {
+        switch (index) {
+            case 0:
+                return a;
+            case 1:
+                return b;
+            case 2:
+                return c;
+            default:
+                throw new IndexOutOfBoundsException();
+        }
+    }
+
     @Override
     public Iterator<T> reverseIterator() {
         return Iterators.forArray(c, b, a);
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree;
+
+import java.util.Arrays;
+
+/**
+ * mutable builder for finger trees, obtained from FingerTree.asTransient()
+ *
+ * the digits and spine of a transient are updated in place, so adding an element only allocates the Node3s that
+ * overflow into the middle tree. a transient may only be used by the thread that created it and becomes unusable
+ * once persistent() has been called. the tree it was created from is never modified.
+ *
+ * @param <V> measure type
+ * @param <T> element type
+ */
+public final class TransientFingerTree<V,T> {
+
+    private final Measured<V, T> measured;
+    @SuppressWarnings("unchecked")
+    private final T[] prefix = (T[]) new Object[4];
+    private int prefixSize = 0;
+    @SuppressWarnings("unchecked")
+    private final T[] suffix = (T[]) new Object[4];
+    private int suffixSize = 0;
+    private FingerTree<V, Node<V, T>> middle;
+    private TransientFingerTree<V, Node<V, T>> transientMiddle = null;
+    private Thread owner;
+
+    TransientFingerTree(FingerTree<V, T> tree, Thread owner) {
+        this.measured = tree.measured();
+        this.owner = owner;
+        middle = tree.match(new FingerTree.Matcher<V, T, FingerTree<V, Node<V, T>>>() {
+            @Override
+            public FingerTree<V, Node<V, T>> empty() {
+                return new Empty<V, Node<V, T>>(measured.nodeMeasured());
+            }
+
+            @Override
+            public FingerTree<V, Node<V, T>> single(T t) {
+                suffix[0] = t;
+                suffixSize = 1;
+                return new Empty<V, Node<V, T>>(measured.nodeMeasured());
+            }
+
+            @Override
+            public FingerTree<V, Node<V, T>> deep(Digit<V, T> prefixDigit, FingerTree<V, Node<V, T>> middle, Digit<V, T> suffixDigit) {
+                prefixSize = prefixDigit.size();
+                for (int i = 0; i < prefixSize; i++) {
+                    prefix[i] = prefixDigit.get(i);
+                }
+                suffixSize = suffixDigit.size();
+                for (int i = 0; i < suffixSize; i++) {
+                    suffix[i] = suffixDigit.get(i);
+                }
+                return middle;
+            }
+        });
+    }
+
+    /**
+     * add t at beginning of this transient
+     * @param t element to add
+     * @return this transient
+     */
+    public TransientFingerTree<V,T> addFirst(T t) {
+        ensureEditable();
+        if (prefixSize == 4) {
+            if (suffixSize == 0 && middleIsEmpty()) {
+                System.arraycopy(prefix, 0, suffix, 0, 4);
+                suffixSize = 4;
+                Arrays.fill(prefix, null);
+                prefixSize = 0;
+            } else {
+                middle().addFirst(new Node3<V, T>(prefix[1], prefix[2], prefix[3], measured));
+                Arrays.fill(prefix, 1, 4, null);
+                prefixSize = 1;
+            }
+        }
+        System.arraycopy(prefix, 0, prefix, 1, prefixSize);
+        prefix[0] = t;
+        prefixSize++;
+        return this;
+    }
+
+    /**
+     * add t at end of this transient
+     * @param t element to add
+     * @return this transient
+     */
+    public TransientFingerTree<V,T> addLast(T t) {
+        ensureEditable();
+        if (suffixSize == 4) {
+            if (prefixSize == 0 && middleIsEmpty()) {
+                System.arraycopy(suffix, 0, prefix, 0, 4);
+                prefixSize = 4;
+                Arrays.fill(suffix, null);
+                suffixSize = 0;
+            } else {
+                middle().addLast(new Node3<V, T>(suffix[0], suffix[1], suffix[2], measured));
+                suffix[0] = suffix[3];
+                Arrays.fill(suffix, 1, 4, null);
+                suffixSize = 1;
+            }
+        }
+        suffix[suffixSize++] = t;
+        return this;
+    }
+
+    /**
+     * add all elements of ts at end of this transient
+     * @param ts elements to add
+     * @return this transient
+     */
+    public TransientFingerTree<V,T> addAll(Iterable<T> ts) {
+        for (T t : ts) {
+            addLast(t);
+        }
+        return this;
+    }
+
+    /**
+     * @return true if this transient contains no elements
+     */
+    public boolean isEmpty() {
+        ensureEditable();
+        return prefixSize == 0 && suffixSize == 0 && middleIsEmpty();
+    }
+
+    /**
+     * freezes this transient into an ordinary immutable tree, the transient may not be used afterwards
+     * @return tree containing all elements added to this transient
+     */
+    public FingerTree<V,T> persistent() {
+        ensureEditable();
+        owner = null;
+        FingerTree<V, Node<V, T>> newMiddle = transientMiddle != null ? transientMiddle.persistent() : middle;
+        if (newMiddle.isEmpty()) {
+            final T[] ts = Arrays.copyOf(prefix, prefixSize+suffixSize);
+            System.arraycopy(suffix, 0, ts, prefixSize, suffixSize);
+            return FingerTrees.fromArray(ts, measured);
+        }
+        final Digit<V,T> newPrefix;
+        if (prefixSize == 0) {
+            newPrefix = newMiddle.first().toDigit();
+            newMiddle = newMiddle.removeFirst();
+        } else {
+            newPrefix = FingerTrees.digit(Arrays.asList(prefix), 0, prefixSize, measured);
+        }
+        final Digit<V,T> newSuffix;
+        if (suffixSize == 0) {
+            if (newMiddle.isEmpty()) {
+                return FingerTrees.toTree(newPrefix, measured);
+            }
+            newSuffix = newMiddle.last().toDigit();
+            newMiddle = newMiddle.removeLast();
+        } else {
+            newSuffix = FingerTrees.digit(Arrays.asList(suffix), 0, suffixSize, measured);
+        }
+        return new Deep<V, T>(newPrefix, newMiddle, newSuffix, measured);
+    }
+
+    private boolean middleIsEmpty() {
+        return transientMiddle != null ? transientMiddle.isEmpty() : middle.isEmpty();
+    }
+
+    private TransientFingerTree<V, Node<V, T>> middle() {
+        if (transientMiddle == null) {
+            transientMiddle = new TransientFingerTree<V, Node<V, T>>(middle, owner);
+            middle = null;
+        }
+        return transientMiddle;
+    }
+
+    private void ensureEditable() {
+        if (owner == null) {
+            throw new IllegalStateException("transient used after persistent() call");
+        }
+        if (owner != Thread.currentThread()) {
+            throw new IllegalStateException("transient used by non-owner thread");
+        }
+    }
+}
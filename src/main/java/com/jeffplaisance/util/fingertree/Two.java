@@ -42,6 +42,23 @@ public class Two<V, T> implements Digit<V, T> {
         return measured.sum(measured.measure(a), measured.measure(b));
     }
 
+    @Override
+    public int size() {
+        return 2;
+    }
+
+    @Override
+    public T get(int index) {
+        switch (index) {
+            case 0:
+                return a;
+            case 1:
+                return b;
+            default:
+                throw new IndexOutOfBoundsException();
+        }
+    }
+
     @Override
     public Iterator<T> reverseIterator() {
         return Iterators.forArray(b, a);
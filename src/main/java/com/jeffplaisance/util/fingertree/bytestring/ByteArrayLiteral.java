@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+final class ByteArrayLiteral extends ByteStringLiteral {
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    public ByteArrayLiteral(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    ByteBuffer range(int offset, int length) {
+        return ByteBuffer.wrap(bytes, this.offset+offset, length).slice();
+    }
+
+    @Override
+    int retainedSize() {
+        return bytes.length;
+    }
+
+    @Override
+    boolean sharesBytes(int offset, ByteStringLiteral other, int otherOffset) {
+        if (!(other instanceof ByteArrayLiteral)) {
+            return false;
+        }
+        final ByteArrayLiteral literal = (ByteArrayLiteral) other;
+        return bytes == literal.bytes && this.offset+offset == literal.offset+otherOffset;
+    }
+
+    @Override
+    int computeCrc32c() {
+        return Crc32c.update(0, bytes, offset, length);
+    }
+
+    @Override
+    int hash(int start, int end) {
+        return PolynomialHash.hash(bytes, offset+start, end-start);
+    }
+
+    @Override
+    void copyTo(byte[] dest, int offset) {
+        System.arraycopy(bytes, this.offset, dest, offset, length);
+    }
+
+    @Override
+    ByteBuffer asReadOnlyByteBuffer() {
+        return ByteBuffer.wrap(bytes, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public ByteArrayLiteral substring(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new ByteArrayLiteral(bytes, offset+start, end-start);
+    }
+
+    @Override
+    public InputStream newInput() {
+        return new ByteArrayInputStream(bytes, offset, length);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    public byte getByte(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return bytes[offset+index];
+    }
+
+    public int length() {
+        return length;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * literal backed by a ByteBuffer, usually a MappedByteBuffer. the bytes are read through absolute gets and
+ * duplicates so the buffer is never copied onto the heap as a whole and its position and limit are never modified.
+ * position and limit are set through Buffer so the class also links against the java 8 ByteBuffer.
+ *
+ * literals allocated from a ByteStringArena check that the arena has not been released before every access, since
+ * reading a freed direct buffer would read freed memory. the buffers returned by range and asReadOnlyByteBuffer are
+ * checked only when they are handed out, callers inside the package finish with them before returning and
+ * asReadOnlyByteBufferList documents that they become invalid when the arena is closed.
+ */
+final class ByteBufferLiteral extends ByteStringLiteral {
+
+    /**
+     * read only buffer holding exactly the bytes of this literal between 0 and its limit
+     */
+    private final ByteBuffer buffer;
+
+    private final @Nullable ByteStringArena arena;
+
+    ByteBufferLiteral(ByteBuffer buffer) {
+        this(buffer, null);
+    }
+
+    ByteBufferLiteral(ByteBuffer buffer, @Nullable ByteStringArena arena) {
+        this.buffer = buffer.slice().asReadOnlyBuffer();
+        this.arena = arena;
+    }
+
+    private void checkAccessible() {
+        if (arena != null && arena.isReleased()) {
+            throw new IllegalStateException("arena has been released");
+        }
+    }
+
+    @Override
+    ByteBuffer range(int offset, int length) {
+        checkAccessible();
+        final ByteBuffer duplicate = buffer.duplicate();
+        ((Buffer) duplicate).limit(offset+length);
+        ((Buffer) duplicate).position(offset);
+        return duplicate.slice();
+    }
+
+    /**
+     * the size of the buffer a slice was taken from is not known, and copying a view of an off heap or mapped buffer
+     * onto the heap would not free anything
+     */
+    @Override
+    int retainedSize() {
+        return length();
+    }
+
+    @Override
+    boolean sharesBytes(int offset, ByteStringLiteral other, int otherOffset) {
+        return other == this && offset == otherOffset;
+    }
+
+    @Override
+    int computeCrc32c() {
+        checkAccessible();
+        int c = ~0;
+        for (int i = 0; i < buffer.limit(); i++) {
+            c = Crc32c.updateRaw(c, buffer.get(i));
+        }
+        return ~c;
+    }
+
+    @Override
+    int hash(int start, int end) {
+        checkAccessible();
+        int ret = 0;
+        for (int i = start; i < end; i++) {
+            ret = ret*PolynomialHash.BASE+(buffer.get(i) & 0xFF);
+        }
+        return ret;
+    }
+
+    @Override
+    void copyTo(byte[] dest, int offset) {
+        checkAccessible();
+        buffer.duplicate().get(dest, offset, buffer.limit());
+    }
+
+    @Override
+    ByteBuffer asReadOnlyByteBuffer() {
+        checkAccessible();
+        return buffer.duplicate();
+    }
+
+    @Override
+    public ByteBufferLiteral substring(int start, int end) {
+        if (start < 0 || end > buffer.limit() || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        final ByteBuffer duplicate = buffer.duplicate();
+        ((Buffer) duplicate).limit(end);
+        ((Buffer) duplicate).position(start);
+        return new ByteBufferLiteral(duplicate, arena);
+    }
+
+    @Override
+    public InputStream newInput() {
+        checkAccessible();
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        checkAccessible();
+        final ByteBuffer duplicate = buffer.duplicate();
+        final WritableByteChannel channel = Channels.newChannel(out);
+        while (duplicate.hasRemaining()) {
+            channel.write(duplicate);
+        }
+    }
+
+    @Override
+    public byte getByte(int index) {
+        checkAccessible();
+        return buffer.get(index);
+    }
+
+    @Override
+    public int length() {
+        return buffer.limit();
+    }
+
+    private final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            checkAccessible();
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            checkAccessible();
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            ((Buffer) buffer).position(buffer.position()+skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * searches over the leaves of a byte string without flattening it or looking up each index in the tree
+ *
+ * patterns are found with Boyer-Moore-Horspool over a Cursor, which walks leaves in order and keeps only the leaves
+ * overlapping the current match window, so matches spanning leaf boundaries are found without copying. reverse
+ * searches run the same algorithm over the leaves in reverse order with the pattern reversed.
+ */
+final class ByteSearch {
+
+    private ByteSearch() {}
+
+    /**
+     * @param literals leaves to search, in search order
+     * @param reverse true if literals are in reverse order and should each be read back to front
+     * @return offset of the first occurrence of b in search order, or -1
+     */
+    static int indexOf(Iterator<ByteStringLiteral> literals, byte b, boolean reverse) {
+        int offset = 0;
+        while (literals.hasNext()) {
+            final ByteStringLiteral literal = literals.next();
+            final int length = literal.length();
+            for (int i = 0; i < length; i++) {
+                if (literal.getByte(reverse ? length-1-i : i) == b) {
+                    return offset+i;
+                }
+            }
+            offset += length;
+        }
+        return -1;
+    }
+
+    /**
+     * @param literals leaves to search, in search order
+     * @param pattern bytes to find, already reversed if reverse is true
+     * @param reverse true if literals are in reverse order and should each be read back to front
+     * @return offset in search order of the first byte of the first occurrence of pattern, or -1
+     */
+    static int indexOf(Iterator<ByteStringLiteral> literals, byte[] pattern, boolean reverse) {
+        final int m = pattern.length;
+        if (m == 0) {
+            return 0;
+        }
+        final int[] skip = new int[256];
+        Arrays.fill(skip, m);
+        for (int i = 0; i < m-1; i++) {
+            skip[pattern[i] & 0xFF] = m-1-i;
+        }
+        final Cursor text = new Cursor(literals, reverse);
+        int i = 0;
+        while (text.load(i+m-1)) {
+            final byte last = text.get(i+m-1);
+            if (last == pattern[m-1]) {
+                int j = m-2;
+                while (j >= 0 && text.get(i+j) == pattern[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += skip[last & 0xFF];
+            text.discardBefore(i);
+        }
+        return -1;
+    }
+
+    static byte[] reverse(byte[] bytes) {
+        final byte[] ret = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            ret[i] = bytes[bytes.length-1-i];
+        }
+        return ret;
+    }
+
+    /**
+     * random access to a window of the bytes of a sequence of leaves, positions only move forward except within the
+     * window
+     */
+    private static final class Cursor {
+
+        private final Iterator<ByteStringLiteral> literals;
+        private final boolean reverse;
+
+        /**
+         * leaves currently in the window and the offset of each one's first byte
+         */
+        private ByteStringLiteral[] chunks = new ByteStringLiteral[4];
+        private int[] starts = new int[4];
+        private int size;
+
+        /**
+         * offset of the end of the last loaded leaf
+         */
+        private int end;
+
+        /**
+         * index in chunks of the leaf last read from
+         */
+        private int current;
+
+        private Cursor(Iterator<ByteStringLiteral> literals, boolean reverse) {
+            this.literals = literals;
+            this.reverse = reverse;
+        }
+
+        /**
+         * loads leaves until position is in the window
+         * @return false if the leaves end before position
+         */
+        boolean load(int position) {
+            while (end <= position) {
+                if (!literals.hasNext()) {
+                    return false;
+                }
+                final ByteStringLiteral literal = literals.next();
+                if (literal.length() == 0) {
+                    continue;
+                }
+                if (size == chunks.length) {
+                    chunks = Arrays.copyOf(chunks, size*2);
+                    starts = Arrays.copyOf(starts, size*2);
+                }
+                chunks[size] = literal;
+                starts[size] = end;
+                size++;
+                end += literal.length();
+            }
+            return true;
+        }
+
+        /**
+         * @param position offset in the window, must have been loaded and not discarded
+         */
+        byte get(int position) {
+            while (position < starts[current]) {
+                current--;
+            }
+            while (position >= starts[current]+chunks[current].length()) {
+                current++;
+            }
+            final ByteStringLiteral chunk = chunks[current];
+            final int offset = position-starts[current];
+            return chunk.getByte(reverse ? chunk.length()-1-offset : offset);
+        }
+
+        /**
+         * drops leaves that end at or before position
+         */
+        void discardBefore(int position) {
+            int drop = 0;
+            while (drop < size && starts[drop]+chunks[drop].length() <= position) {
+                drop++;
+            }
+            if (drop > 0) {
+                System.arraycopy(chunks, drop, chunks, 0, size-drop);
+                System.arraycopy(starts, drop, starts, 0, size-drop);
+                Arrays.fill(chunks, size-drop, size, null);
+                size -= drop;
+                current = Math.max(0, current-drop);
+            }
+        }
+    }
+}
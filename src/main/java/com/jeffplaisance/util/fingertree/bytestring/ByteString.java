@@ -16,29 +16,229 @@
 
 package com.jeffplaisance.util.fingertree.bytestring;
 
-import com.google.common.base.Throwables;
-import com.google.common.hash.Hashing;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
-import com.google.common.io.InputSupplier;
+import com.jeffplaisance.util.fingertree.FingerTree;
+import com.jeffplaisance.util.fingertree.FingerTreeCursor;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
-public abstract class ByteString {
+public abstract class ByteString implements Comparable<ByteString> {
+
+    /**
+     * most buffers passed to one gathering write, writev is limited to IOV_MAX buffers on most platforms
+     */
+    private static final int MAX_GATHER = 1024;
+
+    /**
+     * chunk size used by readFrom, small enough that chunks are never humongous allocations
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64*1024;
 
     public static ByteString fromBytes(byte[] bytes) {
-        return new ByteStringLiteral(Arrays.copyOf(bytes, bytes.length), 0, bytes.length);
+        return new ByteArrayLiteral(Arrays.copyOf(bytes, bytes.length), 0, bytes.length);
     }
 
     public static ByteString fromBytes(byte[] bytes, int offset, int length) {
-        return new ByteStringLiteral(Arrays.copyOfRange(bytes, offset, offset+length), 0, length);
+        return new ByteArrayLiteral(Arrays.copyOfRange(bytes, offset, offset+length), 0, length);
     }
 
+    /**
+     * reads in to the end in chunks of DEFAULT_CHUNK_SIZE bytes
+     * @see #readFrom(InputStream, int, int)
+     */
     public static ByteString readFrom(InputStream in) throws IOException {
-        final byte[] bytes = ByteStreams.toByteArray(in);
-        return new ByteStringLiteral(bytes, 0, bytes.length);
+        return readFrom(in, DEFAULT_CHUNK_SIZE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * wraps the remaining bytes of buffer without copying them, buffer may be direct. the contents of buffer must
+     * not be modified afterwards, its position and limit may be.
+     * @param buffer bytes of new byte string
+     * @return byte string sharing the contents of buffer
+     * @see ByteStringArena for direct buffers that are released explicitly
+     */
+    public static ByteString wrap(ByteBuffer buffer) {
+        return buffer.hasRemaining() ? new ByteBufferLiteral(buffer) : empty();
+    }
+
+    /**
+     * reads in until the end of the stream or until limit bytes have been read, whichever comes first. each chunk
+     * is a separate array that becomes a leaf of the result as is, so the bytes are copied once and never held
+     * twice. in is not read past limit.
+     * @param in stream to read from, not closed
+     * @param chunkSize size of each chunk
+     * @param limit maximum number of bytes to read
+     * @return bytes read
+     */
+    public static ByteString readFrom(InputStream in, int chunkSize, int limit) throws IOException {
+        checkChunking(chunkSize, limit);
+        final List<ByteStringLiteral> chunks = new ArrayList<ByteStringLiteral>();
+        int remaining = limit;
+        while (remaining > 0) {
+            final byte[] chunk = new byte[Math.min(chunkSize, remaining)];
+            final int length = ByteStreams.read(in, chunk, 0, chunk.length);
+            if (length > 0) {
+                chunks.add(chunk(chunk, length));
+                remaining -= length;
+            }
+            if (length < chunk.length) {
+                break;
+            }
+        }
+        return fromChunks(chunks);
+    }
+
+    /**
+     * reads channel to the end in chunks of DEFAULT_CHUNK_SIZE bytes
+     * @see #readFrom(ReadableByteChannel, int, int)
+     */
+    public static ByteString readFrom(ReadableByteChannel channel) throws IOException {
+        return readFrom(channel, DEFAULT_CHUNK_SIZE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * reads a blocking channel until end of stream or until limit bytes have been read, whichever comes first
+     * @param channel channel to read from, not closed
+     * @param chunkSize size of each chunk
+     * @param limit maximum number of bytes to read
+     * @return bytes read
+     * @see #readFrom(InputStream, int, int)
+     */
+    public static ByteString readFrom(ReadableByteChannel channel, int chunkSize, int limit) throws IOException {
+        checkChunking(chunkSize, limit);
+        final List<ByteStringLiteral> chunks = new ArrayList<ByteStringLiteral>();
+        int remaining = limit;
+        boolean eof = false;
+        while (remaining > 0 && !eof) {
+            final byte[] chunk = new byte[Math.min(chunkSize, remaining)];
+            final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    eof = true;
+                    break;
+                }
+            }
+            final int length = buffer.position();
+            if (length > 0) {
+                chunks.add(chunk(chunk, length));
+                remaining -= length;
+            }
+        }
+        return fromChunks(chunks);
+    }
+
+    /**
+     * creates a byte string whose contents are read from in chunkSize bytes at a time, only when an operation
+     * reaches them. in is never closed and must not be read by anything else afterwards.
+     * @param in stream of contents
+     * @param chunkSize number of bytes read at a time
+     * @return lazily read byte string
+     */
+    public static ByteString readLazily(InputStream in, int chunkSize) {
+        return LazyByteString.fromSource(new LazyByteString.InputStreamSource(in, chunkSize));
+    }
+
+    /**
+     * @see #readLazily(InputStream, int)
+     */
+    public static ByteString readLazily(ReadableByteChannel channel, int chunkSize) {
+        return LazyByteString.fromSource(new LazyByteString.ChannelSource(channel, chunkSize));
+    }
+
+    /**
+     * @return output building a byte string from chunks taken from ChunkPool.DEFAULT
+     */
+    public static ByteStringOutput newOutput() {
+        return newOutput(ChunkPool.DEFAULT);
+    }
+
+    /**
+     * @param pool source of chunk buffers, shared by outputs that may run concurrently
+     * @return output building a byte string from chunks of pool.getChunkSize() bytes
+     */
+    public static ByteStringOutput newOutput(ChunkPool pool) {
+        return new ByteStringOutput(pool);
+    }
+
+    static void checkChunking(int chunkSize, int limit) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+    }
+
+    /**
+     * trims the last, partially filled chunk if more than half of it is unused
+     */
+    static ByteStringLiteral chunk(byte[] chunk, int length) {
+        if (length < chunk.length/2) {
+            chunk = Arrays.copyOf(chunk, length);
+        }
+        return new ByteArrayLiteral(chunk, 0, length);
+    }
+
+    static ByteString fromChunks(List<ByteStringLiteral> chunks) {
+        switch (chunks.size()) {
+            case 0:
+                return empty();
+            case 1:
+                return chunks.get(0);
+            default:
+                return FingerTreeByteString.fromLiterals(chunks);
+        }
+    }
+
+    /**
+     * maps the whole file at path into memory, the contents are read from the page cache on demand and are never
+     * copied onto the heap. the file should not be modified while the result is in use.
+     * @param path file to map
+     * @return byte string of the contents of the file
+     * @throws IllegalArgumentException if the file is larger than Integer.MAX_VALUE bytes, map a range of it instead
+     */
+    public static ByteString map(Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return map(channel, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * maps size bytes of channel starting at position read only, the mapping stays valid after channel is closed
+     * @param channel channel to map, must be readable
+     * @param position offset in channel of the first byte
+     * @param size number of bytes to map
+     * @return byte string of the mapped range
+     * @throws IllegalArgumentException if size is larger than Integer.MAX_VALUE, lengths of byte strings are ints
+     */
+    public static ByteString map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("cannot map "+size+" bytes, byte strings are limited to Integer.MAX_VALUE bytes");
+        }
+        if (size == 0) {
+            return empty();
+        }
+        return FingerTreeByteString.emptyFT().append(new ByteBufferLiteral(channel.map(FileChannel.MapMode.READ_ONLY, position, size)));
     }
 
     public static ByteString empty() {
@@ -49,56 +249,433 @@ public abstract class ByteString {
 
     public abstract ByteString concat(ByteString other);
 
+    /**
+     * @throws IndexOutOfBoundsException if start is negative, end is past the end or start is greater than end, also
+     * for lazy byte strings, which read up to end to find out
+     */
     public abstract ByteString substring(int start, int end);
 
+    /**
+     * @throws IndexOutOfBoundsException if start is negative or past the end
+     */
     public abstract ByteString substring(int start);
 
     public abstract InputStream newInput();
 
     public abstract void writeTo(OutputStream out) throws IOException;
 
+    /**
+     * @return stream of the literal byte strings this byte string is made of, in order. call parallel() on the
+     * result to process chunks concurrently
+     */
+    public abstract Stream<ByteString> chunks();
+
+    /**
+     * writes this byte string to a blocking channel, using gathering writes if channel supports them
+     * @param channel channel to write to
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        if (channel instanceof GatheringByteChannel) {
+            writeTo((GatheringByteChannel) channel);
+            return;
+        }
+        for (ByteBuffer buffer : asReadOnlyByteBufferList()) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * writes this byte string to a blocking channel, passing up to 1024 chunks to each write call
+     * @param channel channel to write to
+     */
+    public void writeTo(GatheringByteChannel channel) throws IOException {
+        final List<ByteBuffer> list = asReadOnlyByteBufferList();
+        final ByteBuffer[] buffers = list.toArray(new ByteBuffer[list.size()]);
+        int offset = 0;
+        while (true) {
+            while (offset < buffers.length && !buffers[offset].hasRemaining()) {
+                offset++;
+            }
+            if (offset == buffers.length) {
+                break;
+            }
+            channel.write(buffers, offset, Math.min(buffers.length-offset, MAX_GATHER));
+        }
+    }
+
+    /**
+     * @return one read only buffer per chunk of this byte string, in order. the buffers share the bytes of this
+     * byte string and are not copies. buffers of chunks allocated from a ByteStringArena are raw views of its direct
+     * memory and are not checked on access, they must not be read after the arena is closed.
+     */
+    public abstract List<ByteBuffer> asReadOnlyByteBufferList();
+
+    /**
+     * @throws IndexOutOfBoundsException if index is negative or not less than length()
+     */
     public abstract byte getByte(int index);
 
     public abstract int length();
 
     abstract boolean isLiteral();
 
+    /**
+     * polynomial hash of the bytes, the sum of (getByte(i) &amp; 0xFF) * 31^(length()-1-i) modulo 2^32
+     */
     @Override
-    public int hashCode() {
-        try {
-            return ByteStreams.hash(new InputSupplier<InputStream>() {
-                @Override
-                public InputStream getInput() throws IOException {
-                    return newInput();
-                }
-            }, Hashing.murmur3_32()).asInt();
-        } catch (IOException e) {
-            throw Throwables.propagate(e);
+    public abstract int hashCode();
+
+    /**
+     * @return substring(start, end).hashCode(), computed without creating the substring where possible
+     * @throws IndexOutOfBoundsException under the same conditions as substring
+     */
+    public int substringHash(int start, int end) {
+        return substring(start, end).hashCode();
+    }
+
+    /**
+     * combines the crcs of the leaves, which are cached in each leaf once computed
+     * @return CRC-32C of the bytes of this byte string
+     * @see #withCrc32c()
+     */
+    public int crc32c() {
+        int ret = 0;
+        final Iterator<ByteStringLiteral> literals = literals();
+        while (literals.hasNext()) {
+            final ByteStringLiteral literal = literals.next();
+            ret = Crc32c.combine(ret, literal.crc32c(), literal.length());
         }
+        return ret;
     }
 
-    @Override
-    public boolean equals(final Object obj) {
-        if (obj == null || !(obj instanceof ByteString)) {
-            return false;
+    /**
+     * @return byte string with the same leaves in a tree whose measure caches CRC-32C, so crc32c() of it and of its
+     * substrings and concatenations take O(log n) instead of reading every leaf. byte strings built by concat and
+     * substring are already such trees and return themselves.
+     */
+    public ByteString withCrc32c() {
+        return FingerTreeByteString.fromLiterals(Lists.newArrayList(literals()));
+    }
+
+    /**
+     * @return compact(CompactionPolicy.DEFAULT)
+     */
+    public ByteString compact() {
+        return compact(CompactionPolicy.DEFAULT);
+    }
+
+    /**
+     * merges runs of small leaves and copies out views that keep much larger arrays reachable, reads every leaf. a
+     * lazily read byte string is read to the end.
+     * @return byte string with the same contents whose leaves satisfy policy, this if they already do
+     */
+    public ByteString compact(CompactionPolicy policy) {
+        final List<ByteStringLiteral> literals = policy.compact(literals());
+        return literals == null ? this : fromChunks(literals);
+    }
+
+    /**
+     * @return compacted byte string that also applies policy at the joins and ends created by concat and substring
+     * on it and on the byte strings derived from it
+     * @see CompactionPolicy
+     */
+    public ByteString withCompaction(CompactionPolicy policy) {
+        final List<ByteStringLiteral> literals = policy.compact(literals());
+        return FingerTreeByteString.fromLiterals(literals == null ? Lists.newArrayList(literals()) : literals, policy);
+    }
+
+    /**
+     * @return iterator over the leaves of this byte string in order
+     */
+    abstract Iterator<ByteStringLiteral> literals();
+
+    /**
+     * @return iterator over the leaves of substring(from) in order, empty if from is at or past the end
+     */
+    Iterator<ByteStringLiteral> literalsFrom(int from) {
+        if (from >= length()) {
+            return Iterators.emptyIterator();
         }
-        try {
-            return ByteStreams.equal(
-                    new InputSupplier<InputStream>() {
-                        @Override
-                        public InputStream getInput() throws IOException {
-                            return newInput();
+        return from <= 0 ? literals() : substring(from).literals();
+    }
+
+    /**
+     * @return iterator over the leaves of this byte string in reverse order
+     */
+    Iterator<ByteStringLiteral> reverseLiterals() {
+        return Lists.reverse(Lists.newArrayList(literals())).iterator();
+    }
+
+    /**
+     * @return copy of the bytes of this byte string
+     */
+    public byte[] toByteArray() {
+        final byte[] ret = new byte[length()];
+        int offset = 0;
+        final Iterator<ByteStringLiteral> literals = literals();
+        while (literals.hasNext()) {
+            final ByteStringLiteral literal = literals.next();
+            literal.copyTo(ret, offset);
+            offset += literal.length();
+        }
+        return ret;
+    }
+
+    public int indexOf(byte b) {
+        return indexOf(b, 0);
+    }
+
+    /**
+     * scans the leaves from the one containing from, leaves before it are not read
+     * @return index of the first occurrence of b at or after from, or -1
+     */
+    public int indexOf(byte b, int from) {
+        from = Math.max(from, 0);
+        final int index = ByteSearch.indexOf(literalsFrom(from), b, false);
+        return index < 0 ? -1 : from+index;
+    }
+
+    public int indexOf(ByteString pattern) {
+        return indexOf(pattern, 0);
+    }
+
+    /**
+     * Boyer-Moore-Horspool over the leaves from the one containing from, matches spanning leaf boundaries are found
+     * without copying the text
+     * @return index of the first occurrence of pattern at or after from, or -1
+     */
+    public int indexOf(ByteString pattern, int from) {
+        from = Math.max(from, 0);
+        if (pattern.length() == 0) {
+            return from <= length() ? from : -1;
+        }
+        final int index = ByteSearch.indexOf(literalsFrom(from), pattern.toByteArray(), false);
+        return index < 0 ? -1 : from+index;
+    }
+
+    public int lastIndexOf(byte b) {
+        return lastIndexOf(b, Integer.MAX_VALUE);
+    }
+
+    /**
+     * scans the leaves backwards from the one containing from
+     * @return index of the last occurrence of b at or before from, or -1
+     */
+    public int lastIndexOf(byte b, int from) {
+        final int end = (int) Math.min((long) from+1, length());
+        if (end <= 0) {
+            return -1;
+        }
+        final int index = ByteSearch.indexOf(prefix(end).reverseLiterals(), b, true);
+        return index < 0 ? -1 : end-1-index;
+    }
+
+    public int lastIndexOf(ByteString pattern) {
+        return lastIndexOf(pattern, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Boyer-Moore-Horspool over the leaves in reverse order with the pattern reversed
+     * @return index of the last occurrence of pattern starting at or before from, or -1
+     */
+    public int lastIndexOf(ByteString pattern, int from) {
+        final int m = pattern.length();
+        final int length = length();
+        if (from < 0) {
+            return -1;
+        }
+        final int end = (int) Math.min((long) from+m, length);
+        if (end < m) {
+            return -1;
+        }
+        if (m == 0) {
+            return end;
+        }
+        final int index = ByteSearch.indexOf(prefix(end).reverseLiterals(), ByteSearch.reverse(pattern.toByteArray()), true);
+        return index < 0 ? -1 : end-index-m;
+    }
+
+    private ByteString prefix(int end) {
+        return end == length() ? this : substring(0, end);
+    }
+
+    public boolean contains(ByteString pattern) {
+        return indexOf(pattern) >= 0;
+    }
+
+    /**
+     * splits this byte string around each occurrence of delimiter, searching only as far as the pieces consumed so
+     * far. each piece is a substring sharing the leaves of this byte string. empty pieces are kept, so n delimiters
+     * always give n+1 pieces.
+     */
+    public Iterable<ByteString> split(final ByteString delimiter) {
+        if (delimiter.length() == 0) {
+            throw new IllegalArgumentException("delimiter must not be empty");
+        }
+        return new Iterable<ByteString>() {
+            @Override
+            public Iterator<ByteString> iterator() {
+                return new AbstractIterator<ByteString>() {
+                    int start = 0;
+
+                    @Override
+                    protected ByteString computeNext() {
+                        if (start < 0) {
+                            return endOfData();
                         }
-                    },
-                    new InputSupplier<InputStream>() {
-                        @Override
-                        public InputStream getInput() throws IOException {
-                            return ((ByteString) obj).newInput();
+                        final int index = indexOf(delimiter, start);
+                        final ByteString ret;
+                        if (index < 0) {
+                            ret = substring(start);
+                            start = -1;
+                        } else {
+                            ret = substring(start, index);
+                            start = index+delimiter.length();
                         }
+                        return ret;
                     }
-            );
-        } catch (IOException e) {
-            throw Throwables.propagate(e);
+                };
+            }
+        };
+    }
+
+    /**
+     * walks both byte strings together comparing overlapping ranges in bulk. when both are finger trees they are
+     * descended together and any node or subtree that is the same object at the same offset in both is skipped without
+     * being read, so comparing a byte string to an edited copy of itself costs O(log n) plus the leaves that differ
+     * @param other byte string to compare to
+     * @return index of the first byte that differs, the length of the shorter byte string if one is a prefix of the
+     * other, or -1 if they are equal
+     */
+    public int mismatch(ByteString other) {
+        if (this == other) {
+            return -1;
+        }
+        if (this instanceof FingerTreeByteString && other instanceof FingerTreeByteString) {
+            return mismatch(((FingerTreeByteString) this).bytes, ((FingerTreeByteString) other).bytes);
+        }
+        final Iterator<ByteStringLiteral> aIterator = literals();
+        final Iterator<ByteStringLiteral> bIterator = other.literals();
+        ByteStringLiteral a = null;
+        ByteStringLiteral b = null;
+        int aOffset = 0;
+        int bOffset = 0;
+        int index = 0;
+        while (true) {
+            while ((a == null || aOffset == a.length()) && aIterator.hasNext()) {
+                a = aIterator.next();
+                aOffset = 0;
+            }
+            while ((b == null || bOffset == b.length()) && bIterator.hasNext()) {
+                b = bIterator.next();
+                bOffset = 0;
+            }
+            final boolean aDone = a == null || aOffset == a.length();
+            final boolean bDone = b == null || bOffset == b.length();
+            if (aDone || bDone) {
+                return aDone && bDone ? -1 : index;
+            }
+            final int length = Math.min(a.length()-aOffset, b.length()-bOffset);
+            final int mismatch = ByteStringLiteral.mismatch(a, aOffset, b, bOffset, length);
+            if (mismatch >= 0) {
+                return index+mismatch;
+            }
+            aOffset += length;
+            bOffset += length;
+            index += length;
+        }
+    }
+
+    /**
+     * while neither cursor is partway through a leaf both are at the same offset, so identical items there are equal
+     * and skipped. otherwise the longer subtree is descended until both sides are leaves, which are compared in bulk.
+     */
+    private static int mismatch(FingerTree<ByteStringMeasure, ByteStringLiteral> aTree, FingerTree<ByteStringMeasure, ByteStringLiteral> bTree) {
+        if (aTree == bTree) {
+            return -1;
+        }
+        final FingerTreeCursor<ByteStringMeasure, ByteStringLiteral> a = new FingerTreeCursor<ByteStringMeasure, ByteStringLiteral>(aTree);
+        final FingerTreeCursor<ByteStringMeasure, ByteStringLiteral> b = new FingerTreeCursor<ByteStringMeasure, ByteStringLiteral>(bTree);
+        int aOffset = 0;
+        int bOffset = 0;
+        int index = 0;
+        while (true) {
+            final boolean aDone = !a.hasNext();
+            final boolean bDone = !b.hasNext();
+            if (aDone || bDone) {
+                return aDone && bDone ? -1 : index;
+            }
+            if (aOffset == 0 && bOffset == 0 && a.peek() == b.peek()) {
+                index += lengthOf(a);
+                a.skip();
+                b.skip();
+                continue;
+            }
+            if (!a.atElement() || !b.atElement()) {
+                final int aLength = a.atElement() ? a.element().length()-aOffset : a.measure().length;
+                final int bLength = b.atElement() ? b.element().length()-bOffset : b.measure().length;
+                if (!a.atElement() && (b.atElement() || aLength >= bLength)) {
+                    a.descend();
+                }
+                if (!b.atElement() && (a.atElement() || bLength >= aLength)) {
+                    b.descend();
+                }
+                continue;
+            }
+            final ByteStringLiteral aLiteral = a.element();
+            final ByteStringLiteral bLiteral = b.element();
+            final int length = Math.min(aLiteral.length()-aOffset, bLiteral.length()-bOffset);
+            final int mismatch = ByteStringLiteral.mismatch(aLiteral, aOffset, bLiteral, bOffset, length);
+            if (mismatch >= 0) {
+                return index+mismatch;
+            }
+            aOffset += length;
+            bOffset += length;
+            index += length;
+            if (aOffset == aLiteral.length()) {
+                a.skip();
+                aOffset = 0;
+            }
+            if (bOffset == bLiteral.length()) {
+                b.skip();
+                bOffset = 0;
+            }
+        }
+    }
+
+    private static int lengthOf(FingerTreeCursor<ByteStringMeasure, ByteStringLiteral> cursor) {
+        return cursor.atElement() ? cursor.element().length() : cursor.measure().length;
+    }
+
+    /**
+     * compares lexicographically, bytes are compared as unsigned values
+     */
+    @Override
+    public int compareTo(ByteString other) {
+        final int mismatch = mismatch(other);
+        if (mismatch < 0) {
+            return 0;
+        }
+        if (mismatch == length()) {
+            return -1;
+        }
+        if (mismatch == other.length()) {
+            return 1;
+        }
+        return (getByte(mismatch) & 0xFF) - (other.getByte(mismatch) & 0xFF);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || !(obj instanceof ByteString)) {
+            return false;
         }
+        final ByteString other = (ByteString) obj;
+        return length() == other.length() && hashCode() == other.hashCode() && mismatch(other) < 0;
     }
 }
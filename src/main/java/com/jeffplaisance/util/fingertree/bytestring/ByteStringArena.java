@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * owner of direct buffers backing byte strings outside the java heap
+ *
+ * byte strings created by an arena share its lifetime: close() frees the memory of every buffer the arena allocated
+ * immediately instead of waiting for the garbage collector, and any later access to those byte strings or to
+ * anything built from them throws IllegalStateException. close() must not be called while another thread may still
+ * be reading from the arena's byte strings. concats below the copy threshold copy onto the heap and stay valid.
+ * buffers obtained from ByteString.asReadOnlyByteBufferList() are the exception to the checks: they are views of the
+ * arena's memory that cannot check it, and reading them after close() reads freed memory. copy them first if they
+ * must outlive the arena.
+ */
+public final class ByteStringArena implements Closeable {
+
+    private final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    private long allocated;
+    private volatile boolean released;
+
+    /**
+     * copies the remaining bytes of src into a new direct buffer, src is not modified
+     * @param src bytes to copy
+     * @return byte string backed by direct memory owned by this arena
+     */
+    public ByteString copyOf(ByteBuffer src) {
+        if (!src.hasRemaining()) {
+            return ByteString.empty();
+        }
+        final ByteBuffer buffer = allocate(src.remaining());
+        buffer.put(src.duplicate());
+        buffer.flip();
+        return new ByteBufferLiteral(buffer, this);
+    }
+
+    public ByteString copyOf(byte[] bytes, int offset, int length) {
+        return copyOf(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * reads a blocking channel into direct chunks until end of stream or until limit bytes have been read
+     * @param channel channel to read from, not closed
+     * @param chunkSize size of each chunk
+     * @param limit maximum number of bytes to read
+     * @return bytes read, backed by direct memory owned by this arena
+     * @see ByteString#readFrom(ReadableByteChannel, int, int)
+     */
+    public ByteString readFrom(ReadableByteChannel channel, int chunkSize, int limit) throws IOException {
+        ByteString.checkChunking(chunkSize, limit);
+        final List<ByteStringLiteral> chunks = new ArrayList<ByteStringLiteral>();
+        final ByteBuffer first = ByteBuffer.allocate(1);
+        int remaining = limit;
+        boolean eof = false;
+        while (remaining > 0 && !eof) {
+            // the first byte of each chunk is read before the chunk is allocated so that no empty chunk is allocated
+            // when the channel ends on a chunk boundary
+            first.clear();
+            if (channel.read(first) < 0) {
+                break;
+            }
+            first.flip();
+            final ByteBuffer buffer = allocate(Math.min(chunkSize, remaining));
+            buffer.put(first);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    eof = true;
+                    break;
+                }
+            }
+            buffer.flip();
+            chunks.add(new ByteBufferLiteral(buffer, this));
+            remaining -= buffer.remaining();
+        }
+        return ByteString.fromChunks(chunks);
+    }
+
+    private synchronized ByteBuffer allocate(int size) {
+        if (released) {
+            throw new IllegalStateException("arena has been released");
+        }
+        final ByteBuffer ret = ByteBuffer.allocateDirect(size);
+        buffers.add(ret);
+        allocated += size;
+        return ret;
+    }
+
+    /**
+     * @return total size of the buffers allocated by this arena that have not been released
+     */
+    public synchronized long allocatedBytes() {
+        return allocated;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * releases every buffer allocated by this arena. if the running jvm does not allow freeing direct buffers
+     * explicitly the memory is reclaimed by the garbage collector once the byte strings are unreachable instead.
+     */
+    @Override
+    public synchronized void close() {
+        if (released) {
+            return;
+        }
+        released = true;
+        for (ByteBuffer buffer : buffers) {
+            Deallocator.free(buffer);
+        }
+        buffers.clear();
+        allocated = 0;
+    }
+
+    /**
+     * frees direct buffers through sun.misc.Unsafe.invokeCleaner on java 9 and later, or through the buffer's
+     * cleaner on java 8. both are looked up reflectively and free() does nothing if neither is available.
+     */
+    private static final class Deallocator {
+
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+        private static final Method CLEANER;
+        private static final Method CLEAN;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            Method cleaner = null;
+            Method clean = null;
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+            } catch (Exception e) {
+                invokeCleaner = null;
+                try {
+                    cleaner = ByteBuffer.allocateDirect(1).getClass().getMethod("cleaner");
+                    cleaner.setAccessible(true);
+                    clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                } catch (Exception e2) {
+                    cleaner = null;
+                    clean = null;
+                }
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+            CLEANER = cleaner;
+            CLEAN = clean;
+        }
+
+        static void free(ByteBuffer buffer) {
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                } else if (CLEANER != null) {
+                    final Object cleaner = CLEANER.invoke(buffer);
+                    if (cleaner != null) {
+                        CLEAN.invoke(cleaner);
+                    }
+                }
+            } catch (Exception e) {
+                // left to the garbage collector
+            }
+        }
+    }
+}
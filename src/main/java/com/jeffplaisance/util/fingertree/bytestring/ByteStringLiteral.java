@@ -16,30 +16,41 @@
 
 package com.jeffplaisance.util.fingertree.bytestring;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import com.google.common.collect.Iterators;
 
-class ByteStringLiteral extends ByteString {
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * leaf of a FingerTreeByteString, a contiguous range of bytes either on the heap or in a ByteBuffer
+ */
+abstract class ByteStringLiteral extends ByteString {
 
     static final int COPY_THRESHOLD = 128;
 
-    private final byte[] bytes;
-    private final int offset;
-    private final int length;
+    /**
+     * cached polynomial hash, valid once hashed is set. a flag rather than 0 marks it missing since runs of zero bytes
+     * hash to 0
+     */
+    private int hash;
+    private volatile boolean hashed;
 
-    public ByteStringLiteral(byte[] bytes, int offset, int length) {
-        this.bytes = bytes;
-        this.offset = offset;
-        this.length = length;
-    }
+    /**
+     * cached crc32c, valid once crcComputed is set
+     */
+    private int crc32c;
+    private volatile boolean crcComputed;
 
     @Override
     public ByteString concat(ByteString other) {
-        if (other.isLiteral()) {
+        if (other instanceof LazyByteString) {
+            return ((LazyByteString) other).prepend(this);
+        } else if (other.isLiteral()) {
             final ByteStringLiteral byteString = (ByteStringLiteral) other;
-            if (length + byteString.length <= COPY_THRESHOLD) {
+            if (length() + byteString.length() <= COPY_THRESHOLD) {
                 return copy(this, byteString);
             } else {
                 return FingerTreeByteString.emptyFT().append(this).concat(other);
@@ -50,41 +61,140 @@ class ByteStringLiteral extends ByteString {
     }
 
     static ByteStringLiteral copy(ByteStringLiteral a, ByteStringLiteral b) {
-        final byte[] newArray = new byte[a.length+b.length];
-        System.arraycopy(a.bytes, a.offset, newArray, 0, a.length);
-        System.arraycopy(b.bytes, b.offset, newArray, a.length(), b.length);
-        return new ByteStringLiteral(newArray, 0, newArray.length);
+        final byte[] newArray = new byte[a.length()+b.length()];
+        a.copyTo(newArray, 0);
+        b.copyTo(newArray, a.length());
+        return new ByteArrayLiteral(newArray, 0, newArray.length);
+    }
+
+    static ByteStringLiteral copy(ByteStringLiteral literal) {
+        final byte[] newArray = new byte[literal.length()];
+        literal.copyTo(newArray, 0);
+        return new ByteArrayLiteral(newArray, 0, newArray.length);
+    }
+
+    static ByteStringLiteral copy(List<ByteStringLiteral> literals) {
+        int length = 0;
+        for (ByteStringLiteral literal : literals) {
+            length += literal.length();
+        }
+        final byte[] newArray = new byte[length];
+        int offset = 0;
+        for (ByteStringLiteral literal : literals) {
+            literal.copyTo(newArray, offset);
+            offset += literal.length();
+        }
+        return new ByteArrayLiteral(newArray, 0, newArray.length);
     }
 
+    /**
+     * @return polynomial hash of the bytes between start and end
+     */
+    abstract int hash(int start, int end);
+
     @Override
-    public ByteStringLiteral substring(int start, int end) {
-        if (start < 0 || end > length) {
-            throw new IllegalArgumentException();
+    public int hashCode() {
+        if (hashed) {
+            return hash;
         }
-        return new ByteStringLiteral(bytes, offset+start, end-start);
+        final int ret = hash(0, length());
+        hash = ret;
+        hashed = true;
+        return ret;
     }
 
+    /**
+     * @return crc32c of all bytes of this literal
+     */
+    abstract int computeCrc32c();
+
     @Override
-    public ByteString substring(int start) {
-        return substring(start, length);
+    public int crc32c() {
+        if (crcComputed) {
+            return crc32c;
+        }
+        final int ret = computeCrc32c();
+        crc32c = ret;
+        crcComputed = true;
+        return ret;
     }
 
     @Override
-    public InputStream newInput() {
-        return new ByteArrayInputStream(bytes, offset, length);
+    public int substringHash(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        return start == 0 && end == length() ? hashCode() : hash(start, end);
     }
 
     @Override
-    public void writeTo(OutputStream out) throws IOException {
-        out.write(bytes, offset, length);
+    Iterator<ByteStringLiteral> literals() {
+        return Iterators.singletonIterator(this);
     }
 
-    public byte getByte(int index) {
-        return bytes[offset+index];
+    /**
+     * @return number of heap bytes kept reachable by this literal, at least length()
+     */
+    abstract int retainedSize();
+
+    /**
+     * @return read only buffer of the length bytes starting at offset, sharing the bytes of this literal
+     */
+    abstract ByteBuffer range(int offset, int length);
+
+    /**
+     * @return true if the bytes of this literal starting at offset are known to be the same memory as the bytes of
+     * other starting at otherOffset
+     */
+    abstract boolean sharesBytes(int offset, ByteStringLiteral other, int otherOffset);
+
+    /**
+     * compares length bytes of a starting at aOffset to length bytes of b starting at bOffset, the ranges are
+     * compared with ByteBuffer.equals, which recent jvms compare vectorized
+     * @return index of the first difference relative to the start of the ranges, or -1 if they are equal
+     */
+    static int mismatch(ByteStringLiteral a, int aOffset, ByteStringLiteral b, int bOffset, int length) {
+        if (a.sharesBytes(aOffset, b, bOffset)) {
+            return -1;
+        }
+        final ByteBuffer aRange = a.range(aOffset, length);
+        final ByteBuffer bRange = b.range(bOffset, length);
+        if (aRange.equals(bRange)) {
+            return -1;
+        }
+        for (int i = 0; ; i++) {
+            if (aRange.get(i) != bRange.get(i)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * copies the bytes of this literal into dest starting at offset
+     */
+    abstract void copyTo(byte[] dest, int offset);
+
+    /**
+     * @return read only buffer sharing the bytes of this literal, positioned at 0 with limit length()
+     */
+    abstract ByteBuffer asReadOnlyByteBuffer();
+
+    @Override
+    public List<ByteBuffer> asReadOnlyByteBufferList() {
+        return Collections.singletonList(asReadOnlyByteBuffer());
+    }
+
+    @Override
+    public abstract ByteStringLiteral substring(int start, int end);
+
+    @Override
+    public ByteString substring(int start) {
+        return substring(start, length());
     }
 
-    public int length() {
-        return length;
+    @Override
+    public Stream<ByteString> chunks() {
+        return Stream.<ByteString>of(this);
     }
 
     @Override
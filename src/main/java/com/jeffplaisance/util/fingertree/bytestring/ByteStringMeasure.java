@@ -0,0 +1,320 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import com.jeffplaisance.util.fingertree.Digit;
+import com.jeffplaisance.util.fingertree.FingerTree;
+import com.jeffplaisance.util.fingertree.IntValuedMeasured;
+import com.jeffplaisance.util.fingertree.Node;
+
+/**
+ * measure of a FingerTreeByteString: the length of a subtree, with slots for the polynomial hash and CRC-32C of its
+ * bytes, which are each only computed the first time they are asked for and then cached
+ *
+ * building and editing a tree only adds lengths, and splits and lookups accumulate them as ints through MEASURED, so a
+ * leaf is never read when it enters a tree. a measure keeps no reference to the measures it was summed from: hash and
+ * crc32c walk the tree itself, reusing the values cached in the measures of the Nodes and Deeps they pass and in the
+ * literals, so after an edit only the nodes the edit rebuilt are combined again.
+ */
+final class ByteStringMeasure {
+
+    static final ByteStringMeasure ZERO = new ByteStringMeasure(0);
+
+    static final IntValuedMeasured<ByteStringMeasure, ByteStringLiteral> MEASURED = new IntValuedMeasured<ByteStringMeasure, ByteStringLiteral>() {
+        @Override
+        public ByteStringMeasure sum(ByteStringMeasure a, ByteStringMeasure b) {
+            if (a.length == 0) {
+                return b;
+            }
+            if (b.length == 0) {
+                return a;
+            }
+            return new ByteStringMeasure(a.length+b.length);
+        }
+
+        @Override
+        public ByteStringMeasure measure(ByteStringLiteral a) {
+            return new ByteStringMeasure(a.length());
+        }
+
+        @Override
+        public ByteStringMeasure zero() {
+            return ZERO;
+        }
+
+        @Override
+        public int sumInt(int a, int b) {
+            return a+b;
+        }
+
+        @Override
+        public int measureInt(ByteStringLiteral a) {
+            return a.length();
+        }
+
+        @Override
+        public int zeroInt() {
+            return 0;
+        }
+
+        @Override
+        public int intValue(ByteStringMeasure measure) {
+            return measure.length;
+        }
+    };
+
+    final int length;
+
+    /**
+     * cached hash, valid once hashed is set. a flag rather than 0 marks it missing since runs of zero bytes hash to 0
+     */
+    private int hash;
+    private volatile boolean hashed;
+
+    /**
+     * cached crc, valid once crcComputed is set
+     */
+    private int crc;
+    private volatile boolean crcComputed;
+
+    private ByteStringMeasure(int length) {
+        this.length = length;
+    }
+
+    /**
+     * O(1) once computed
+     * @return polynomial hash of the bytes of tree
+     */
+    static int hash(FingerTree<ByteStringMeasure, ByteStringLiteral> tree) {
+        return HASH.ofTree(tree);
+    }
+
+    /**
+     * O(1) once computed
+     * @return CRC-32C of the bytes of tree
+     */
+    static int crc32c(FingerTree<ByteStringMeasure, ByteStringLiteral> tree) {
+        return CRC32C.ofTree(tree);
+    }
+
+    /**
+     * O(log n) plus hashing within the literal containing index, without building any new trees
+     * @return polynomial hash of the first index bytes of tree
+     */
+    static int prefixHash(FingerTree<ByteStringMeasure, ByteStringLiteral> tree, int index) {
+        if (index == tree.measure().length) {
+            return HASH.ofTree(tree);
+        }
+        return prefixHashOfTree(tree, index);
+    }
+
+    /**
+     * @param index less than the length of tree
+     */
+    private static <T> int prefixHashOfTree(FingerTree<ByteStringMeasure, T> tree, final int index) {
+        return tree.match(new FingerTree.Matcher<ByteStringMeasure, T, Integer>() {
+            @Override
+            public Integer single(T t) {
+                return prefixHashOfElement(t, index);
+            }
+
+            @Override
+            public Integer deep(Digit<ByteStringMeasure, T> prefix, FingerTree<ByteStringMeasure, Node<ByteStringMeasure, T>> middle, Digit<ByteStringMeasure, T> suffix) {
+                int prefixLength = 0;
+                for (int i = 0; i < prefix.size(); i++) {
+                    prefixLength += lengthOf(prefix.get(i));
+                }
+                if (index < prefixLength) {
+                    return prefixHashOfElements(prefix, index);
+                }
+                final int prefixHash = HASH.ofElements(prefix);
+                final int middleLength = middle.measure().length;
+                if (index < prefixLength+middleLength) {
+                    final int offset = index-prefixLength;
+                    return PolynomialHash.combine(prefixHash, prefixHashOfTree(middle, offset), offset);
+                }
+                final int offset = index-prefixLength-middleLength;
+                final int beforeSuffix = PolynomialHash.combine(prefixHash, HASH.ofTree(middle), middleLength);
+                return PolynomialHash.combine(beforeSuffix, prefixHashOfElements(suffix, offset), offset);
+            }
+        });
+    }
+
+    private static int prefixHashOfElement(Object element, int index) {
+        if (element instanceof ByteStringLiteral) {
+            return ((ByteStringLiteral) element).hash(0, index);
+        }
+        return prefixHashOfElements((Node<?, ?>) element, index);
+    }
+
+    /**
+     * @param index less than the total length of elements
+     */
+    private static int prefixHashOfElements(Iterable<?> elements, int index) {
+        int hash = 0;
+        int offset = 0;
+        for (Object element : elements) {
+            final int length = lengthOf(element);
+            if (index < offset+length) {
+                return PolynomialHash.combine(hash, prefixHashOfElement(element, index-offset), index-offset);
+            }
+            hash = PolynomialHash.combine(hash, HASH.ofElement(element), length);
+            offset += length;
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * @param element ByteStringLiteral or Node of a FingerTreeByteString
+     */
+    private static int lengthOf(Object element) {
+        if (element instanceof ByteStringLiteral) {
+            return ((ByteStringLiteral) element).length();
+        }
+        return ((ByteStringMeasure) ((Node<?, ?>) element).measure()).length;
+    }
+
+    /**
+     * a digest of byte strings that combines associatively, with its cache slot in ByteStringMeasure
+     */
+    private static abstract class Digest {
+
+        abstract int ofLiteral(ByteStringLiteral literal);
+
+        /**
+         * @return digest of a followed by b, given the digests of both and the length of b
+         */
+        abstract int combine(int a, int b, int bLength);
+
+        abstract boolean isCached(ByteStringMeasure measure);
+
+        abstract int cached(ByteStringMeasure measure);
+
+        abstract void cache(ByteStringMeasure measure, int value);
+
+        final <T> int ofTree(FingerTree<ByteStringMeasure, T> tree) {
+            final ByteStringMeasure measure = tree.measure();
+            if (isCached(measure)) {
+                return cached(measure);
+            }
+            final int ret = tree.match(new FingerTree.Matcher<ByteStringMeasure, T, Integer>() {
+                @Override
+                public Integer empty() {
+                    return 0;
+                }
+
+                @Override
+                public Integer single(T t) {
+                    return ofElement(t);
+                }
+
+                @Override
+                public Integer deep(Digit<ByteStringMeasure, T> prefix, FingerTree<ByteStringMeasure, Node<ByteStringMeasure, T>> middle, Digit<ByteStringMeasure, T> suffix) {
+                    final int withMiddle = combine(ofElements(prefix), ofTree(middle), middle.measure().length);
+                    return ofElements(withMiddle, suffix);
+                }
+            });
+            cache(measure, ret);
+            return ret;
+        }
+
+        final int ofElement(Object element) {
+            if (element instanceof ByteStringLiteral) {
+                return ofLiteral((ByteStringLiteral) element);
+            }
+            final Node<?, ?> node = (Node<?, ?>) element;
+            final ByteStringMeasure measure = (ByteStringMeasure) node.measure();
+            if (isCached(measure)) {
+                return cached(measure);
+            }
+            final int ret = ofElements(node);
+            cache(measure, ret);
+            return ret;
+        }
+
+        final int ofElements(Iterable<?> elements) {
+            return ofElements(0, elements);
+        }
+
+        /**
+         * the digest of no bytes is 0 for both the hash and the crc, so 0 also starts a run
+         */
+        private int ofElements(int initial, Iterable<?> elements) {
+            int ret = initial;
+            for (Object element : elements) {
+                ret = combine(ret, ofElement(element), lengthOf(element));
+            }
+            return ret;
+        }
+    }
+
+    private static final Digest HASH = new Digest() {
+        @Override
+        int ofLiteral(ByteStringLiteral literal) {
+            return literal.hashCode();
+        }
+
+        @Override
+        int combine(int a, int b, int bLength) {
+            return PolynomialHash.combine(a, b, bLength);
+        }
+
+        @Override
+        boolean isCached(ByteStringMeasure measure) {
+            return measure.hashed;
+        }
+
+        @Override
+        int cached(ByteStringMeasure measure) {
+            return measure.hash;
+        }
+
+        @Override
+        void cache(ByteStringMeasure measure, int value) {
+            measure.hash = value;
+            measure.hashed = true;
+        }
+    };
+
+    private static final Digest CRC32C = new Digest() {
+        @Override
+        int ofLiteral(ByteStringLiteral literal) {
+            return literal.crc32c();
+        }
+
+        @Override
+        int combine(int a, int b, int bLength) {
+            return Crc32c.combine(a, b, bLength);
+        }
+
+        @Override
+        boolean isCached(ByteStringMeasure measure) {
+            return measure.crcComputed;
+        }
+
+        @Override
+        int cached(ByteStringMeasure measure) {
+            return measure.crc;
+        }
+
+        @Override
+        void cache(ByteStringMeasure measure, int value) {
+            measure.crc = value;
+            measure.crcComputed = true;
+        }
+    };
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * builds a byte string from writes of any size. bytes are written into fixed size chunks taken from a ChunkPool, each
+ * full chunk becomes a leaf of the result as is, and the leaves are built into a tree in one pass when the output is
+ * closed, so every byte is copied once and the written bytes are never held twice.
+ *
+ * not thread safe.
+ */
+public final class ByteStringOutput extends OutputStream implements WritableByteChannel {
+
+    private final ChunkPool pool;
+    private final List<byte[]> full = new ArrayList<byte[]>();
+    private byte[] current;
+    private int position;
+    private long size;
+    private ByteString result;
+
+    ByteStringOutput(ChunkPool pool) {
+        this.pool = pool;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (result != null) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * @return chunk with at least one byte free
+     */
+    private byte[] current() {
+        if (current == null) {
+            current = pool.take();
+            position = 0;
+        } else if (position == current.length) {
+            full.add(current);
+            current = pool.take();
+            position = 0;
+        }
+        return current;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkOpen();
+        current()[position++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkOpen();
+        if (off < 0 || len < 0 || off+len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            final byte[] chunk = current();
+            final int length = Math.min(len, chunk.length-position);
+            System.arraycopy(b, off, chunk, position, length);
+            position += length;
+            off += length;
+            len -= length;
+            size += length;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        checkOpen();
+        final int ret = src.remaining();
+        while (src.hasRemaining()) {
+            final byte[] chunk = current();
+            final int length = Math.min(src.remaining(), chunk.length-position);
+            src.get(chunk, position, length);
+            position += length;
+            size += length;
+        }
+        return ret;
+    }
+
+    /**
+     * writes the leaves of bytes, copying them into chunks
+     */
+    public void write(ByteString bytes) throws IOException {
+        for (ByteBuffer buffer : bytes.asReadOnlyByteBufferList()) {
+            write(buffer);
+        }
+    }
+
+    /**
+     * @return number of bytes written so far
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * discards everything written so far and returns the chunks to the pool
+     */
+    public void reset() throws ClosedChannelException {
+        checkOpen();
+        for (byte[] chunk : full) {
+            pool.release(chunk);
+        }
+        full.clear();
+        if (current != null) {
+            pool.release(current);
+            current = null;
+        }
+        size = 0;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return result == null;
+    }
+
+    /**
+     * finishes the byte string, later writes fail. a last chunk that is less than half full is copied to its exact
+     * size and returned to the pool.
+     */
+    @Override
+    public void close() {
+        if (result != null) {
+            return;
+        }
+        final List<ByteStringLiteral> chunks = new ArrayList<ByteStringLiteral>(full.size()+1);
+        for (byte[] chunk : full) {
+            chunks.add(new ByteArrayLiteral(chunk, 0, chunk.length));
+        }
+        full.clear();
+        if (current != null && position > 0) {
+            if (position < current.length/2) {
+                chunks.add(new ByteArrayLiteral(Arrays.copyOf(current, position), 0, position));
+                pool.release(current);
+            } else {
+                chunks.add(new ByteArrayLiteral(current, 0, position));
+            }
+        } else if (current != null) {
+            pool.release(current);
+        }
+        current = null;
+        result = ByteString.fromChunks(chunks);
+    }
+
+    /**
+     * closes this output if it is still open
+     * @return bytes written
+     */
+    public ByteString toByteString() {
+        close();
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import java.util.ArrayDeque;
+
+/**
+ * reusable chunk buffers for ByteStringOutput. a chunk that ends up as a leaf of a byte string is never returned, only
+ * chunks whose bytes were copied out or discarded are, so the pool mostly recycles the partially filled last chunk of
+ * each output.
+ */
+public final class ChunkPool {
+
+    public static final ChunkPool DEFAULT = new ChunkPool(ByteString.DEFAULT_CHUNK_SIZE, 64);
+
+    private final int chunkSize;
+    private final int maxPooled;
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<byte[]>();
+
+    /**
+     * @param chunkSize size of each chunk
+     * @param maxPooled most chunks kept for reuse, chunks released beyond this are left to the garbage collector
+     */
+    public ChunkPool(int chunkSize, int maxPooled) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("maxPooled must not be negative");
+        }
+        this.chunkSize = chunkSize;
+        this.maxPooled = maxPooled;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return chunk of chunkSize bytes, not zeroed if it was reused
+     */
+    synchronized byte[] take() {
+        final byte[] chunk = chunks.pollFirst();
+        return chunk != null ? chunk : new byte[chunkSize];
+    }
+
+    /**
+     * @param chunk chunk from take that nothing references any more
+     */
+    synchronized void release(byte[] chunk) {
+        if (chunks.size() < maxPooled) {
+            chunks.addFirst(chunk);
+        }
+    }
+
+    synchronized int pooled() {
+        return chunks.size();
+    }
+}
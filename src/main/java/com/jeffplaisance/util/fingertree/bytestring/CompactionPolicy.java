@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * limits on the fragmentation of a byte string. leaves shorter than minLeafSize are merged with their neighbours into
+ * leaves of at most targetLeafSize bytes, and views that keep an array more than maxWasteRatio times their length
+ * reachable are copied out so the array can be collected.
+ *
+ * ByteString.compact(policy) applies a policy to every leaf in one pass. ByteString.withCompaction(policy) compacts
+ * and also carries the policy along through concat and substring of the result, which then merge the small leaves
+ * meeting at each join and copy out wasteful views at the ends of each substring, so the result never needs a full
+ * pass.
+ */
+public final class CompactionPolicy {
+
+    public static final CompactionPolicy DEFAULT = new CompactionPolicy(4096, ByteString.DEFAULT_CHUNK_SIZE, 4.0);
+
+    private final int minLeafSize;
+    private final int targetLeafSize;
+    private final double maxWasteRatio;
+
+    /**
+     * @param minLeafSize leaves shorter than this are merged with their neighbours
+     * @param targetLeafSize merged leaves are at most this long, at least minLeafSize
+     * @param maxWasteRatio views of arrays more than this many times their length are copied, at least 1
+     */
+    public CompactionPolicy(int minLeafSize, int targetLeafSize, double maxWasteRatio) {
+        if (minLeafSize < 0) {
+            throw new IllegalArgumentException("minLeafSize must not be negative");
+        }
+        if (targetLeafSize < minLeafSize || targetLeafSize <= 0) {
+            throw new IllegalArgumentException("targetLeafSize must be positive and at least minLeafSize");
+        }
+        if (!(maxWasteRatio >= 1)) {
+            throw new IllegalArgumentException("maxWasteRatio must be at least 1");
+        }
+        this.minLeafSize = minLeafSize;
+        this.targetLeafSize = targetLeafSize;
+        this.maxWasteRatio = maxWasteRatio;
+    }
+
+    public int getMinLeafSize() {
+        return minLeafSize;
+    }
+
+    public int getTargetLeafSize() {
+        return targetLeafSize;
+    }
+
+    public double getMaxWasteRatio() {
+        return maxWasteRatio;
+    }
+
+    boolean isSmall(ByteStringLiteral literal) {
+        return literal.length() < minLeafSize;
+    }
+
+    boolean isWasteful(ByteStringLiteral literal) {
+        return literal.retainedSize() > literal.length()*maxWasteRatio;
+    }
+
+    /**
+     * @return true if a and b are adjacent leaves that should be replaced by one copy
+     */
+    boolean shouldMerge(ByteStringLiteral a, ByteStringLiteral b) {
+        return (isSmall(a) || isSmall(b)) && a.length()+b.length() <= targetLeafSize;
+    }
+
+    /**
+     * @return literal, or a copy of it if it is a wasteful view
+     */
+    ByteStringLiteral detach(ByteStringLiteral literal) {
+        return isWasteful(literal) ? ByteStringLiteral.copy(literal) : literal;
+    }
+
+    /**
+     * packs runs of small or wasteful leaves into new arrays of up to targetLeafSize bytes, other leaves are kept as
+     * they are
+     * @return compacted leaves, or null if no leaf needed to change
+     */
+    List<ByteStringLiteral> compact(Iterator<ByteStringLiteral> literals) {
+        final List<ByteStringLiteral> ret = new ArrayList<ByteStringLiteral>();
+        final List<ByteStringLiteral> run = new ArrayList<ByteStringLiteral>();
+        int runLength = 0;
+        boolean changed = false;
+        while (literals.hasNext()) {
+            final ByteStringLiteral literal = literals.next();
+            if (literal.length() == 0) {
+                changed = true;
+                continue;
+            }
+            if (!isSmall(literal) && !isWasteful(literal)) {
+                changed |= flush(run, ret);
+                runLength = 0;
+                ret.add(literal);
+                continue;
+            }
+            if (runLength+literal.length() > targetLeafSize) {
+                changed |= flush(run, ret);
+                runLength = 0;
+            }
+            run.add(literal);
+            runLength += literal.length();
+        }
+        changed |= flush(run, ret);
+        return changed ? ret : null;
+    }
+
+    /**
+     * adds run to dest as one leaf and clears it, a run of one leaf is only copied if it is wasteful
+     * @return true if a leaf was copied
+     */
+    private boolean flush(List<ByteStringLiteral> run, List<ByteStringLiteral> dest) {
+        if (run.isEmpty()) {
+            return false;
+        }
+        if (run.size() == 1 && !isWasteful(run.get(0))) {
+            dest.add(run.get(0));
+            run.clear();
+            return false;
+        }
+        dest.add(ByteStringLiteral.copy(run));
+        run.clear();
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+/**
+ * table driven CRC-32C (Castagnoli) with combination of independently computed crcs
+ *
+ * combine follows zlib's crc32_combine: the crc of a concatenation is the crc of the first part multiplied by
+ * x^(8*length of the second part) modulo the crc polynomial, xored with the crc of the second part. the power of x is
+ * assembled from a table of x^(2^n) in O(log length) polynomial multiplications.
+ */
+final class Crc32c {
+
+    /**
+     * reflected Castagnoli polynomial
+     */
+    private static final int POLY = 0x82F63B78;
+
+    private static final int[] TABLE = new int[256];
+
+    /**
+     * X2N_TABLE[n] is x^(2^n) modulo POLY
+     */
+    private static final int[] X2N_TABLE = new int[32];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int c = i;
+            for (int j = 0; j < 8; j++) {
+                c = (c & 1) != 0 ? (c >>> 1) ^ POLY : c >>> 1;
+            }
+            TABLE[i] = c;
+        }
+        int p = 1 << 30;
+        X2N_TABLE[0] = p;
+        for (int n = 1; n < 32; n++) {
+            p = multModP(p, p);
+            X2N_TABLE[n] = p;
+        }
+    }
+
+    private Crc32c() {}
+
+    /**
+     * @param crc crc of the preceding bytes, 0 for none
+     * @return crc of the preceding bytes followed by length bytes of bytes starting at offset
+     */
+    static int update(int crc, byte[] bytes, int offset, int length) {
+        int c = ~crc;
+        for (int i = offset; i < offset+length; i++) {
+            c = TABLE[(c ^ bytes[i]) & 0xFF] ^ (c >>> 8);
+        }
+        return ~c;
+    }
+
+    /**
+     * update for a single byte without the pre and post conditioning, callers invert before and after a run
+     */
+    static int updateRaw(int c, byte b) {
+        return TABLE[(c ^ b) & 0xFF] ^ (c >>> 8);
+    }
+
+    /**
+     * @return crc of a followed by b, given the crcs of both and the length of b
+     */
+    static int combine(int crcA, int crcB, int lengthB) {
+        return multModP(x2nModP(lengthB, 3), crcA) ^ crcB;
+    }
+
+    /**
+     * @return a*b modulo POLY, where a and b are reflected polynomials
+     */
+    private static int multModP(int a, int b) {
+        int m = 1 << 31;
+        int p = 0;
+        while (true) {
+            if ((a & m) != 0) {
+                p ^= b;
+                if ((a & (m-1)) == 0) {
+                    break;
+                }
+            }
+            m >>>= 1;
+            b = (b & 1) != 0 ? (b >>> 1) ^ POLY : b >>> 1;
+        }
+        return p;
+    }
+
+    /**
+     * @return x^(n*2^k) modulo POLY
+     */
+    private static int x2nModP(int n, int k) {
+        int p = 1 << 31;
+        while (n != 0) {
+            if ((n & 1) != 0) {
+                p = multModP(X2N_TABLE[k & 31], p);
+            }
+            n >>>= 1;
+            k++;
+        }
+        return p;
+    }
+}
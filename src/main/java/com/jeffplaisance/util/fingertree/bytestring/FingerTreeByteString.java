@@ -18,7 +18,6 @@ package com.jeffplaisance.util.fingertree.bytestring;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
 import com.google.common.io.ByteStreams;
@@ -26,62 +25,95 @@ import com.google.common.io.InputSupplier;
 import com.jeffplaisance.util.Pair;
 import com.jeffplaisance.util.fingertree.Empty;
 import com.jeffplaisance.util.fingertree.FingerTree;
-import com.jeffplaisance.util.fingertree.Measured;
+import com.jeffplaisance.util.fingertree.FingerTrees;
+import com.jeffplaisance.util.fingertree.IntLookup;
 
+import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 class FingerTreeByteString extends ByteString {
 
-    public static final Measured<Integer,ByteStringLiteral> BYTE_STRING_LENGTH_MEASURE = new Measured<Integer, ByteStringLiteral>() {
-        @Override
-        public Integer sum(Integer a, Integer b) {
-            return a + b;
-        }
-
-        @Override
-        public Integer measure(ByteStringLiteral a) {
-            return a.length();
-        }
+    static FingerTreeByteString emptyFT() {
+        return new FingerTreeByteString(new Empty<ByteStringMeasure, ByteStringLiteral>(ByteStringMeasure.MEASURED));
+    }
 
-        @Override
-        public Integer zero() {
-            return 0;
-        }
-    };
+    /**
+     * builds a byte string from literals in one pass, the literals are not merged
+     */
+    static FingerTreeByteString fromLiterals(List<ByteStringLiteral> literals) {
+        return fromLiterals(literals, null);
+    }
 
-    static FingerTreeByteString emptyFT() {
-        return new FingerTreeByteString(new Empty<Integer, ByteStringLiteral>(BYTE_STRING_LENGTH_MEASURE));
+    static FingerTreeByteString fromLiterals(List<ByteStringLiteral> literals, @Nullable CompactionPolicy policy) {
+        return new FingerTreeByteString(FingerTrees.toTree(literals, ByteStringMeasure.MEASURED), policy);
     }
 
-    final FingerTree<Integer, ByteStringLiteral> bytes;
+    final FingerTree<ByteStringMeasure, ByteStringLiteral> bytes;
+
+    /**
+     * applied to the joins and ends of byte strings derived from this one, see CompactionPolicy
+     */
+    private final @Nullable CompactionPolicy policy;
+
+    public FingerTreeByteString(FingerTree<ByteStringMeasure, ByteStringLiteral> bytes) {
+        this(bytes, null);
+    }
 
-    public FingerTreeByteString(FingerTree<Integer, ByteStringLiteral> bytes) {
+    FingerTreeByteString(FingerTree<ByteStringMeasure, ByteStringLiteral> bytes, @Nullable CompactionPolicy policy) {
         this.bytes = bytes;
+        this.policy = policy;
+    }
+
+    private boolean shouldMerge(ByteStringLiteral a, ByteStringLiteral b) {
+        return policy == null ? a.length()+b.length() <= ByteStringLiteral.COPY_THRESHOLD : policy.shouldMerge(a, b);
+    }
+
+    private ByteStringLiteral detach(ByteStringLiteral literal) {
+        return policy == null ? literal : policy.detach(literal);
     }
 
     public ByteString prepend(ByteStringLiteral literal) {
-        if (!bytes.isEmpty() && literal.length()+bytes.first().length() <= ByteStringLiteral.COPY_THRESHOLD) {
-            return new FingerTreeByteString(bytes.removeFirst().addFirst(ByteStringLiteral.copy(literal, bytes.first())));
+        if (!bytes.isEmpty() && shouldMerge(literal, bytes.first())) {
+            return new FingerTreeByteString(bytes.removeFirst().addFirst(ByteStringLiteral.copy(literal, bytes.first())), policy);
         } else {
-            return new FingerTreeByteString(bytes.addFirst(literal));
+            return new FingerTreeByteString(bytes.addFirst(detach(literal)), policy);
         }
     }
 
     public ByteString append(ByteStringLiteral literal) {
-        if (!bytes.isEmpty() && bytes.last().length()+literal.length() <= ByteStringLiteral.COPY_THRESHOLD) {
-            return new FingerTreeByteString(bytes.removeLast().addLast(ByteStringLiteral.copy(bytes.last(), literal)));
+        if (!bytes.isEmpty() && shouldMerge(bytes.last(), literal)) {
+            return new FingerTreeByteString(bytes.removeLast().addLast(ByteStringLiteral.copy(bytes.last(), literal)), policy);
         } else {
-            return new FingerTreeByteString(bytes.addLast(literal));
+            return new FingerTreeByteString(bytes.addLast(detach(literal)), policy);
         }
     }
 
     @Override
     public ByteString concat(ByteString other) {
-        if (!other.isLiteral()) {
-            return new FingerTreeByteString(bytes.concat(((FingerTreeByteString) other).bytes));
+        if (other instanceof LazyByteString) {
+            return ((LazyByteString) other).prepend(this);
+        } else if (!other.isLiteral()) {
+            final FingerTree<ByteStringMeasure, ByteStringLiteral> right = ((FingerTreeByteString) other).bytes;
+            if (policy != null && !bytes.isEmpty() && !right.isEmpty() && policy.shouldMerge(bytes.last(), right.first())) {
+                return new FingerTreeByteString(
+                        bytes.removeLast().addLast(ByteStringLiteral.copy(bytes.last(), right.first())).concat(right.removeFirst()),
+                        policy
+                );
+            }
+            return new FingerTreeByteString(bytes.concat(right), policy);
         } else {
             return append((ByteStringLiteral)other);
         }
@@ -89,25 +121,31 @@ class FingerTreeByteString extends ByteString {
 
     @Override
     public ByteString substring(final int start, final int end) {
-        final Pair<FingerTree<Integer, ByteStringLiteral>, FingerTree<Integer, ByteStringLiteral>> split1 = bytes.split(
-                new Predicate<Integer>() {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (start == end) {
+            return ByteString.empty();
+        }
+        final Pair<FingerTree<ByteStringMeasure, ByteStringLiteral>, FingerTree<ByteStringMeasure, ByteStringLiteral>> split1 = bytes.splitInt(
+                new IntPredicate() {
                     @Override
-                    public boolean apply(Integer integer) {
-                        return integer > start;
+                    public boolean test(int length) {
+                        return length > start;
                     }
                 }
         );
-        final int headLength = split1.a().measure();
-        final FingerTree<Integer, ByteStringLiteral> substring = split1.b().takeUntil(new Predicate<Integer>() {
+        final int headLength = split1.a().measure().length;
+        final FingerTree<ByteStringMeasure, ByteStringLiteral> substring = split1.b().takeUntilInt(new IntPredicate() {
             @Override
-            public boolean apply(Integer integer) {
-                return integer >= end - headLength;
+            public boolean test(int length) {
+                return length >= end - headLength;
             }
         }, true);
-        final int substringLen = substring.measure();
-        final FingerTree<Integer, ByteStringLiteral> substring2 = substring.removeFirst().addFirst(substring.first().substring(start - headLength, substring.first().length()));
-        final FingerTree<Integer, ByteStringLiteral> substring3 = substring2.removeLast().addLast(substring2.last().substring(0, substring2.last().length() - (headLength + substringLen - end)));
-        return new FingerTreeByteString(substring3);
+        final int substringLen = substring.measure().length;
+        final FingerTree<ByteStringMeasure, ByteStringLiteral> substring2 = substring.removeFirst().addFirst(detach(substring.first().substring(start - headLength, substring.first().length())));
+        final FingerTree<ByteStringMeasure, ByteStringLiteral> substring3 = substring2.removeLast().addLast(detach(substring2.last().substring(0, substring2.last().length() - (headLength + substringLen - end))));
+        return new FingerTreeByteString(substring3, policy);
     }
 
     @Override
@@ -138,26 +176,105 @@ class FingerTreeByteString extends ByteString {
     }
 
     @Override
-    public void writeTo(OutputStream out) throws IOException {
-        for (ByteStringLiteral literal : bytes) {
-            literal.writeTo(out);
+    public void writeTo(final OutputStream out) throws IOException {
+        try {
+            bytes.forEach(new Consumer<ByteStringLiteral>() {
+                @Override
+                public void accept(ByteStringLiteral literal) {
+                    try {
+                        literal.writeTo(out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
+    @Override
+    public List<ByteBuffer> asReadOnlyByteBufferList() {
+        final List<ByteBuffer> ret = new ArrayList<ByteBuffer>();
+        bytes.forEach(new Consumer<ByteStringLiteral>() {
+            @Override
+            public void accept(ByteStringLiteral literal) {
+                ret.add(literal.asReadOnlyByteBuffer());
+            }
+        });
+        return ret;
+    }
+
+    @Override
+    public Stream<ByteString> chunks() {
+        @SuppressWarnings("unchecked")
+        final Spliterator<ByteString> spliterator = (Spliterator<ByteString>) (Spliterator<? extends ByteString>) bytes.spliterator();
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    @Override
+    Iterator<ByteStringLiteral> literals() {
+        return bytes.iterator();
+    }
+
+    @Override
+    Iterator<ByteStringLiteral> reverseLiterals() {
+        return bytes.reverseIterator();
+    }
+
     @Override
     public byte getByte(final int index) {
-        final Pair<FingerTree<Integer, ByteStringLiteral>, FingerTree<Integer, ByteStringLiteral>> split = bytes.split(new Predicate<Integer>() {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        final IntLookup<ByteStringLiteral> lookup = bytes.lookupInt(new IntPredicate() {
             @Override
-            public boolean apply(Integer integer) {
-                return integer > index;
+            public boolean test(int length) {
+                return length > index;
             }
         });
-        return split.b().first().getByte(index - split.a().measure());
+        if (lookup == null) {
+            throw new IndexOutOfBoundsException();
+        }
+        return lookup.getElement().getByte(index - lookup.getMeasure());
     }
 
     @Override
     public int length() {
-        return bytes.measure();
+        return bytes.measure().length;
+    }
+
+    /**
+     * O(1) after the first call, the hash is computed lazily and cached in the measure of each node, so after an edit
+     * only the nodes the edit rebuilt and the new leaves are hashed again
+     */
+    @Override
+    public int hashCode() {
+        return ByteStringMeasure.hash(bytes);
+    }
+
+    /**
+     * O(1) after the first call, cached in the measure of each node like hashCode
+     */
+    @Override
+    public int crc32c() {
+        return ByteStringMeasure.crc32c(bytes);
+    }
+
+    @Override
+    public ByteString withCrc32c() {
+        return this;
+    }
+
+    /**
+     * O(log n) plus hashing within the two literals containing start and end
+     */
+    @Override
+    public int substringHash(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        return ByteStringMeasure.prefixHash(bytes, end) - ByteStringMeasure.prefixHash(bytes, start)*PolynomialHash.pow(end-start);
     }
 
     @Override
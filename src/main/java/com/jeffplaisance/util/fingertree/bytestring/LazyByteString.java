@@ -0,0 +1,431 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.InputSupplier;
+import com.google.common.primitives.Ints;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * byte string made of a materialized prefix followed by chunks that are read from a source the first time anything
+ * reaches them
+ *
+ * the unread part is a linked list of memoized chunk cells, forced in order under the lock of the shared source in
+ * the same way FingerTreeThunk forces its tree. getByte and substring(start, end) only read as far as they need,
+ * substring(start) stays lazy, and prepending with other.concat(lazy) keeps the tail unread. length, concat onto the
+ * end, equals and hashCode have to read the source to the end. a chunk is garbage once no lazy byte string refers to
+ * it or to an earlier chunk.
+ *
+ * getByte, substring and the search methods find their first chunk by walking the list, starting from the chunk the
+ * previous call ended in when it is not past the index, so reading forwards costs O(1) per chunk and each jump
+ * backwards walks again from the head.
+ *
+ * read errors surface as UncheckedIOException from the method that reached the chunk, including the read methods of
+ * the stream returned by newInput. only writeTo throws IOException. an index past the end throws
+ * IndexOutOfBoundsException once the source runs out before it, the same as for any other byte string.
+ */
+final class LazyByteString extends ByteString {
+
+    private final ByteString prefix;
+    private final LazyChunk tail;
+
+    /**
+     * chunk the last lookup ended in, null until the first lookup past the prefix
+     */
+    private volatile @Nullable Cursor cursor;
+
+    static LazyByteString fromSource(ChunkSource source) {
+        return new LazyByteString(empty(), new LazyChunk(source));
+    }
+
+    private LazyByteString(ByteString prefix, LazyChunk tail) {
+        this.prefix = prefix;
+        this.tail = tail;
+    }
+
+    /**
+     * @return head followed by this byte string, the source is not read
+     */
+    ByteString prepend(ByteString head) {
+        return new LazyByteString(head.concat(prefix), tail);
+    }
+
+    /**
+     * reads the source to the end
+     * @return this byte string without the lazy tail
+     */
+    ByteString force() {
+        final List<ByteStringLiteral> literals = new ArrayList<ByteStringLiteral>();
+        for (LazyChunk chunk = tail; chunk.literal() != null; chunk = chunk.next()) {
+            literals.add(chunk.literal());
+        }
+        return literals.isEmpty() ? prefix : prefix.concat(fromChunks(literals));
+    }
+
+    @Override
+    public ByteString concat(ByteString other) {
+        return force().concat(other);
+    }
+
+    @Override
+    public ByteString substring(int start, int end) {
+        if (start < 0 || end < start) {
+            throw new IndexOutOfBoundsException();
+        }
+        final int prefixLength = prefix.length();
+        ByteString ret = prefix.substring(Math.min(start, prefixLength), Math.min(end, prefixLength));
+        final Cursor first = start < prefixLength ? new Cursor(tail, prefixLength) : seek(start);
+        int offset = first.offset;
+        final List<ByteStringLiteral> literals = new ArrayList<ByteStringLiteral>();
+        for (LazyChunk chunk = first.chunk; offset < end; chunk = chunk.next()) {
+            final ByteStringLiteral literal = chunk.literal();
+            if (literal == null) {
+                throw new IndexOutOfBoundsException();
+            }
+            final int length = literal.length();
+            if (offset+length > start) {
+                literals.add(literal.substring(Math.max(start-offset, 0), Math.min(end-offset, length)));
+            }
+            offset += length;
+        }
+        return literals.isEmpty() ? ret : ret.concat(fromChunks(literals));
+    }
+
+    @Override
+    public ByteString substring(int start) {
+        if (start < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        final int prefixLength = prefix.length();
+        if (start <= prefixLength) {
+            return new LazyByteString(prefix.substring(start), tail);
+        }
+        final Cursor at = seek(start);
+        final ByteStringLiteral literal = at.chunk.literal();
+        if (literal == null) {
+            if (start > at.offset) {
+                throw new IndexOutOfBoundsException();
+            }
+            return new LazyByteString(empty(), at.chunk);
+        }
+        return new LazyByteString(literal.substring(start-at.offset), at.chunk.next());
+    }
+
+    @Override
+    public InputStream newInput() {
+        try {
+            return ByteStreams.join(Iterables.transform(
+                    Iterables.concat(Collections.<ByteString>singleton(prefix), chunks(tail)),
+                    new Function<ByteString, InputSupplier<InputStream>>() {
+                        @Override
+                        public InputSupplier<InputStream> apply(final ByteString byteString) {
+                            return new InputSupplier<InputStream>() {
+                                @Override
+                                public InputStream getInput() throws IOException {
+                                    return byteString.newInput();
+                                }
+                            };
+                        }
+                    }
+            )).getInput();
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        prefix.writeTo(out);
+        try {
+            for (LazyChunk chunk = tail; chunk.literal() != null; chunk = chunk.next()) {
+                chunk.literal().writeTo(out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public List<ByteBuffer> asReadOnlyByteBufferList() {
+        return force().asReadOnlyByteBufferList();
+    }
+
+    @Override
+    public Stream<ByteString> chunks() {
+        return Stream.concat(prefix.chunks(), StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(chunks(tail).iterator(), Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ));
+    }
+
+    @Override
+    Iterator<ByteStringLiteral> literals() {
+        return Iterators.concat(prefix.literals(), chunks(tail).iterator());
+    }
+
+    /**
+     * only reads as far as from
+     */
+    @Override
+    Iterator<ByteStringLiteral> literalsFrom(int from) {
+        final int prefixLength = prefix.length();
+        if (from < prefixLength) {
+            return Iterators.concat(prefix.literalsFrom(from), chunks(tail).iterator());
+        }
+        final Cursor at = seek(from);
+        final ByteStringLiteral literal = at.chunk.literal();
+        if (literal == null) {
+            return Iterators.emptyIterator();
+        }
+        return Iterators.concat(
+                Iterators.singletonIterator(literal.substring(from-at.offset, literal.length())),
+                chunks(at.chunk.next()).iterator()
+        );
+    }
+
+    @Override
+    public byte getByte(int index) {
+        final int prefixLength = prefix.length();
+        if (index < prefixLength) {
+            return prefix.getByte(index);
+        }
+        final Cursor at = seek(index);
+        final ByteStringLiteral literal = at.chunk.literal();
+        if (literal == null) {
+            throw new IndexOutOfBoundsException();
+        }
+        return literal.getByte(index-at.offset);
+    }
+
+    /**
+     * reads up to the chunk containing index, index must not be in the prefix
+     * @return the chunk containing index, or the end of the source if index is past it
+     */
+    private Cursor seek(int index) {
+        Cursor from = cursor;
+        if (from == null || index < from.offset) {
+            from = new Cursor(tail, prefix.length());
+        }
+        LazyChunk chunk = from.chunk;
+        int offset = from.offset;
+        while (chunk.literal() != null && index >= offset+chunk.literal().length()) {
+            offset += chunk.literal().length();
+            chunk = chunk.next();
+        }
+        if (chunk == from.chunk) {
+            return from;
+        }
+        final Cursor ret = new Cursor(chunk, offset);
+        cursor = ret;
+        return ret;
+    }
+
+    @Override
+    public int length() {
+        long length = prefix.length();
+        for (LazyChunk chunk = tail; chunk.literal() != null; chunk = chunk.next()) {
+            length += chunk.literal().length();
+        }
+        return Ints.checkedCast(length);
+    }
+
+    @Override
+    public int hashCode() {
+        return force().hashCode();
+    }
+
+    @Override
+    boolean isLiteral() {
+        return false;
+    }
+
+    /**
+     * @return chunks starting at chunk, reading the source as the iterator advances
+     */
+    private static Iterable<ByteStringLiteral> chunks(final LazyChunk chunk) {
+        return new Iterable<ByteStringLiteral>() {
+            @Override
+            public Iterator<ByteStringLiteral> iterator() {
+                return new Iterator<ByteStringLiteral>() {
+
+                    private LazyChunk next = chunk;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next.literal() != null;
+                    }
+
+                    @Override
+                    public ByteStringLiteral next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final ByteStringLiteral ret = next.literal();
+                        next = next.next();
+                        return ret;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * chunk of the unread part together with the index of its first byte in the lazy byte string
+     */
+    private static final class Cursor {
+
+        private final LazyChunk chunk;
+        private final int offset;
+
+        private Cursor(LazyChunk chunk, int offset) {
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * memoized cell of the unread part, literal is null at the end of the source
+     */
+    private static final class LazyChunk {
+
+        private final ChunkSource source;
+        private ByteStringLiteral literal;
+        private LazyChunk next;
+        private volatile boolean forced;
+
+        private LazyChunk(ChunkSource source) {
+            this.source = source;
+        }
+
+        private void force() {
+            if (!forced) {
+                synchronized (source) {
+                    if (!forced) {
+                        literal = source.read();
+                        if (literal != null) {
+                            next = new LazyChunk(source);
+                        }
+                        forced = true;
+                    }
+                }
+            }
+        }
+
+        @Nullable ByteStringLiteral literal() {
+            force();
+            return literal;
+        }
+
+        LazyChunk next() {
+            force();
+            return next;
+        }
+    }
+
+    /**
+     * sequential source of chunks, only called with its own lock held
+     */
+    static abstract class ChunkSource {
+
+        final int chunkSize;
+
+        ChunkSource(int chunkSize) {
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("chunkSize must be positive");
+            }
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * @return next chunk, or null at the end of the source
+         */
+        abstract @Nullable ByteStringLiteral read();
+    }
+
+    static final class InputStreamSource extends ChunkSource {
+
+        private final InputStream in;
+
+        InputStreamSource(InputStream in, int chunkSize) {
+            super(chunkSize);
+            this.in = in;
+        }
+
+        @Override
+        @Nullable ByteStringLiteral read() {
+            final byte[] chunk = new byte[chunkSize];
+            try {
+                final int length = ByteStreams.read(in, chunk, 0, chunkSize);
+                return length == 0 ? null : chunk(chunk, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static final class ChannelSource extends ChunkSource {
+
+        private final ReadableByteChannel channel;
+
+        ChannelSource(ReadableByteChannel channel, int chunkSize) {
+            super(chunkSize);
+            this.channel = channel;
+        }
+
+        @Override
+        @Nullable ByteStringLiteral read() {
+            final byte[] chunk = new byte[chunkSize];
+            final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.position() == 0 ? null : chunk(chunk, buffer.position());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.bytestring;
+
+/**
+ * polynomial hash of a byte string, sum of (b[i] &amp; 0xFF) * 31^(length-1-i) modulo 2^32
+ *
+ * the hash of a concatenation is hash(a)*31^length(b)+hash(b), so hashes combine associatively and can be cached in
+ * the measure of a finger tree.
+ */
+final class PolynomialHash {
+
+    static final int BASE = 31;
+
+    /**
+     * POWERS[k][i] is 31^(i &lt;&lt; 8k) modulo 2^32, so any power is the product of one entry from each table
+     */
+    private static final int[][] POWERS = new int[4][256];
+
+    static {
+        int step = BASE;
+        for (int k = 0; k < POWERS.length; k++) {
+            int power = 1;
+            for (int i = 0; i < 256; i++) {
+                POWERS[k][i] = power;
+                power *= step;
+            }
+            step = power;
+        }
+    }
+
+    private PolynomialHash() {}
+
+    /**
+     * @return 31^n modulo 2^32
+     */
+    static int pow(int n) {
+        return POWERS[0][n & 0xFF]*POWERS[1][(n >>> 8) & 0xFF]*POWERS[2][(n >>> 16) & 0xFF]*POWERS[3][n >>> 24];
+    }
+
+    /**
+     * @return hash of the concatenation of a byte string with hash a and a byte string with hash b and length bLength
+     */
+    static int combine(int a, int b, int bLength) {
+        return a*pow(bLength)+b;
+    }
+
+    static int hash(byte[] bytes, int offset, int length) {
+        int ret = 0;
+        for (int i = offset; i < offset+length; i++) {
+            ret = ret*BASE+(bytes[i] & 0xFF);
+        }
+        return ret;
+    }
+}
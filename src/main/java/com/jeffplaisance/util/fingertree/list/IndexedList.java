@@ -16,7 +16,6 @@
 
 package com.jeffplaisance.util.fingertree.list;
 
-import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.hash.Hasher;
@@ -25,36 +24,43 @@ import com.jeffplaisance.util.Pair;
 import com.jeffplaisance.util.fingertree.Empty;
 import com.jeffplaisance.util.fingertree.FingerTree;
 import com.jeffplaisance.util.fingertree.FingerTrees;
-import com.jeffplaisance.util.fingertree.Measured;
+import com.jeffplaisance.util.fingertree.IntLookup;
+import com.jeffplaisance.util.fingertree.IntMeasured;
+import com.jeffplaisance.util.fingertree.ParallelFingerTrees;
 import com.jeffplaisance.util.fingertree.Single;
 
 import java.lang.reflect.Array;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class IndexedList<T> implements Iterable<T> {
 
-    private static final Measured<Integer, Object> COUNT_MEASURED = new Measured<Integer, Object>() {
+    private static final IntMeasured<Object> COUNT_MEASURED = new IntMeasured<Object>() {
         @Override
-        public Integer sum(Integer a, Integer b) {
+        public int sumInt(int a, int b) {
             return a+b;
         }
 
         @Override
-        public Integer measure(Object a) {
+        public int measureInt(Object a) {
             return 1;
         }
 
         @Override
-        public Integer zero() {
+        public int zeroInt() {
             return 0;
         }
     };
 
-    private static <T> Measured<Integer, T> getCountMeasured() {
-        return (Measured<Integer, T>) COUNT_MEASURED;
+    private static <T> IntMeasured<T> getCountMeasured() {
+        return (IntMeasured<T>) COUNT_MEASURED;
     }
 
     private final FingerTree<Integer, T> data;
@@ -72,7 +78,11 @@ public class IndexedList<T> implements Iterable<T> {
     }
 
     public static <T> IndexedList<T> newList(T... ts) {
-        return new IndexedList<T>(FingerTrees.toTree(Arrays.asList(ts), IndexedList.<T>getCountMeasured()));
+        return new IndexedList<T>(FingerTrees.fromArray(ts, IndexedList.<T>getCountMeasured()));
+    }
+
+    public static <T> IndexedList<T> newList(ParallelFingerTrees parallel, T[] ts) {
+        return new IndexedList<T>(parallel.fromArray(ts, IndexedList.<T>getCountMeasured()));
     }
 
     private IndexedList(FingerTree<Integer, T> data) {
@@ -84,24 +94,43 @@ public class IndexedList<T> implements Iterable<T> {
         return data.iterator();
     }
 
+    @Override
+    public Spliterator<T> spliterator() {
+        return FingerTrees.countedSpliterator(data);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     public int size() {
         return data.measure();
     }
 
     public T get(final int index) {
-        final Pair<FingerTree<Integer, T>, FingerTree<Integer, T>> split = data.split(new Predicate<Integer>() {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        final IntLookup<T> lookup = data.lookupInt(new IntPredicate() {
             @Override
-            public boolean apply(Integer integer) {
+            public boolean test(int integer) {
                 return integer > index;
             }
         });
-        return split.b().first();
+        if (lookup == null) {
+            throw new IndexOutOfBoundsException();
+        }
+        return lookup.getElement();
     }
 
     public IndexedList<T> set(final int index, T t) {
-        final Pair<FingerTree<Integer, T>, FingerTree<Integer, T>> split = data.split(new Predicate<Integer>() {
+        final Pair<FingerTree<Integer, T>, FingerTree<Integer, T>> split = data.splitInt(new IntPredicate() {
             @Override
-            public boolean apply(Integer integer) {
+            public boolean test(int integer) {
                 return integer > index;
             }
         });
@@ -120,6 +149,14 @@ public class IndexedList<T> implements Iterable<T> {
         return new IndexedList<T>(data.addLast(t));
     }
 
+    public IndexedList<T> addAll(Iterable<T> ts) {
+        return new IndexedList<T>(data.asTransient().addAll(ts).persistent());
+    }
+
+    public <R> IndexedList<R> map(ParallelFingerTrees parallel, Function<? super T, ? extends R> f) {
+        return new IndexedList<R>(parallel.map(data, f, IndexedList.<R>getCountMeasured()));
+    }
+
     public IndexedList<T> removeFirst() {
         return new IndexedList<T>(data.removeFirst());
     }
@@ -145,15 +182,15 @@ public class IndexedList<T> implements Iterable<T> {
     }
 
     public IndexedList<T> subList(final int start, final int end) {
-        final Pair<FingerTree<Integer, T>, FingerTree<Integer, T>> split1 = data.split(new Predicate<Integer>() {
+        final Pair<FingerTree<Integer, T>, FingerTree<Integer, T>> split1 = data.splitInt(new IntPredicate() {
             @Override
-            public boolean apply(Integer integer) {
+            public boolean test(int integer) {
                 return integer > start;
             }
         });
-        final FingerTree<Integer, T> subList = split1.b().takeUntil(new Predicate<Integer>() {
+        final FingerTree<Integer, T> subList = split1.b().takeUntilInt(new IntPredicate() {
             @Override
-            public boolean apply(Integer integer) {
+            public boolean test(int integer) {
                 return integer >= end - start;
             }
         }, true);
@@ -175,9 +212,12 @@ public class IndexedList<T> implements Iterable<T> {
     @Override
     public int hashCode() {
         final Hasher hasher = Hashing.murmur3_32().newHasher();
-        for (T t : this) {
-            hasher.putInt(t.hashCode());
-        }
+        data.forEach(new Consumer<T>() {
+            @Override
+            public void accept(T t) {
+                hasher.putInt(t.hashCode());
+            }
+        });
         return hasher.hash().asInt();
     }
 
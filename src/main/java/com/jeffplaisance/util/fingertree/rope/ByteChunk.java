@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.rope;
+
+import com.google.common.base.Charsets;
+
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * rope leaf holding its text in one byte array, one byte per char if every char is Latin-1 and UTF-8 otherwise
+ *
+ * unpaired surrogates are encoded as 3 byte sequences like any other char so decoding always gives back the original
+ * text. charAt on a UTF-8 chunk decodes the whole chunk, so the rope reads chars through forCharAt, which decodes
+ * once per chunk visited.
+ */
+final class ByteChunk extends Chunk {
+
+    private final byte[] bytes;
+
+    private ByteChunk(byte[] bytes, TextMetrics metrics) {
+        super(metrics);
+        this.bytes = bytes;
+    }
+
+    static ByteChunk of(CharSequence text) {
+        final TextMetrics metrics = TextMetrics.of(text);
+        final int length = text.length();
+        boolean latin1 = true;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) > 0xFF) {
+                latin1 = false;
+                break;
+            }
+        }
+        if (latin1) {
+            final byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) text.charAt(i);
+            }
+            return new ByteChunk(bytes, metrics);
+        }
+        return new ByteChunk(encode(text, metrics.utf8Length), metrics);
+    }
+
+    /**
+     * a Latin-1 chunk has one byte per char, a UTF-8 chunk with a char above 0xFF always has more bytes than chars
+     */
+    boolean isLatin1() {
+        return bytes.length == metrics.utf16Length;
+    }
+
+    /**
+     * O(1) for Latin-1, decodes the chunk for UTF-8
+     */
+    @Override
+    public char charAt(int index) {
+        if (isLatin1()) {
+            return (char) (bytes[index] & 0xFF);
+        }
+        return toString().charAt(index);
+    }
+
+    @Override
+    public ByteChunk subSequence(int start, int end) {
+        if (start == 0 && end == length()) {
+            return this;
+        }
+        if (isLatin1()) {
+            return of(new String(bytes, start, end-start, Charsets.ISO_8859_1));
+        }
+        return of(toString().substring(start, end));
+    }
+
+    @Override
+    public IntStream chars() {
+        if (!isLatin1()) {
+            return toString().chars();
+        }
+        return IntStream.range(0, bytes.length).map(new IntUnaryOperator() {
+            @Override
+            public int applyAsInt(int index) {
+                return bytes[index] & 0xFF;
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return isLatin1() ? new String(bytes, Charsets.ISO_8859_1) : decode(bytes, metrics.utf16Length);
+    }
+
+    /**
+     * @return this chunk unless it is UTF-8, in which case it is decoded
+     */
+    @Override
+    CharSequence forCharAt() {
+        return isLatin1() ? this : toString();
+    }
+
+    /**
+     * @return a followed by b, a ByteChunk if either is one
+     */
+    static Chunk concat(CharSequence a, CharSequence b) {
+        final String text = a.toString()+b;
+        return a instanceof ByteChunk || b instanceof ByteChunk ? of(text) : StringChunk.of(text);
+    }
+
+    private static byte[] encode(CharSequence text, int utf8Length) {
+        final byte[] ret = new byte[utf8Length];
+        int position = 0;
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                ret[position++] = (byte) c;
+            } else if (c < 0x800) {
+                ret[position++] = (byte) (0xC0 | (c >> 6));
+                ret[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i+1 < length && Character.isLowSurrogate(text.charAt(i+1))) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                ret[position++] = (byte) (0xF0 | (codePoint >> 18));
+                ret[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                ret[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                ret[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                ret[position++] = (byte) (0xE0 | (c >> 12));
+                ret[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                ret[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return ret;
+    }
+
+    private static String decode(byte[] bytes, int utf16Length) {
+        final char[] ret = new char[utf16Length];
+        int position = 0;
+        for (int i = 0; i < bytes.length; ) {
+            final int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                ret[position++] = (char) b;
+                i++;
+            } else if (b < 0xE0) {
+                ret[position++] = (char) (((b & 0x1F) << 6) | (bytes[i+1] & 0x3F));
+                i += 2;
+            } else if (b < 0xF0) {
+                ret[position++] = (char) (((b & 0x0F) << 12) | ((bytes[i+1] & 0x3F) << 6) | (bytes[i+2] & 0x3F));
+                i += 3;
+            } else {
+                final int codePoint = ((b & 0x07) << 18) | ((bytes[i+1] & 0x3F) << 12) | ((bytes[i+2] & 0x3F) << 6) | (bytes[i+3] & 0x3F);
+                ret[position++] = Character.highSurrogate(codePoint);
+                ret[position++] = Character.lowSurrogate(codePoint);
+                i += 4;
+            }
+        }
+        return new String(ret);
+    }
+}
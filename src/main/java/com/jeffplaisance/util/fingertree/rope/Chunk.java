@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.rope;
+
+/**
+ * leaf of a rope. the metrics of its text are computed once when the chunk is created, so rebuilding a node of the
+ * tree only adds cached metrics and never rescans a leaf.
+ */
+abstract class Chunk implements CharSequence {
+
+    final TextMetrics metrics;
+
+    Chunk(TextMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public final int length() {
+        return metrics.utf16Length;
+    }
+
+    /**
+     * reads only the chars between start and end
+     */
+    @Override
+    public abstract Chunk subSequence(int start, int end);
+
+    /**
+     * @return chars of this chunk with O(1) charAt
+     */
+    abstract CharSequence forCharAt();
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.rope;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * searches a rope in parallel by splitting it into segments of segmentLength chars, each scanned in its own task
+ *
+ * a segment is scanned in a String copy of its chars plus overlap chars on either side, which is cheaper than
+ * matching through charAt and keeps tasks from sharing the rope's cursor. a match belongs to the segment it starts
+ * in, lookbehind can see overlap chars before the segment, and if matching reaches the end of the window it is
+ * retried on a window twice as far past the segment. the results of each segment are then merged in order, and a
+ * segment whose first matches overlap the last match of the previous one is rescanned from the end of that match
+ * until its results agree again, or skipped if that match covers it, so findAll returns exactly the matches
+ * Matcher.find would return one by one.
+ */
+public final class ParallelRopeSearch {
+
+    public static final int DEFAULT_SEGMENT_LENGTH = 1 << 20;
+    public static final int DEFAULT_OVERLAP = 1024;
+
+    public static final ParallelRopeSearch DEFAULT = new ParallelRopeSearch(ForkJoinPool.commonPool(), DEFAULT_SEGMENT_LENGTH, DEFAULT_OVERLAP);
+
+    private final ForkJoinPool pool;
+    private final int segmentLength;
+    private final int overlap;
+
+    /**
+     * @param pool pool to scan segments in
+     * @param segmentLength number of chars in which each task looks for match starts
+     * @param overlap chars copied on either side of a segment, should exceed the length of most matches
+     */
+    public ParallelRopeSearch(ForkJoinPool pool, int segmentLength, int overlap) {
+        if (segmentLength < 1) {
+            throw new IllegalArgumentException("segmentLength must be positive");
+        }
+        if (overlap < 1) {
+            throw new IllegalArgumentException("overlap must be positive");
+        }
+        this.pool = pool;
+        this.segmentLength = segmentLength;
+        this.overlap = overlap;
+    }
+
+    /**
+     * @return the matches of pattern in rope in order, the same matches repeated calls to Matcher.find would return
+     */
+    public List<MatchResult> findAll(final Rope rope, final Pattern pattern) {
+        final int length = rope.length();
+        final List<List<MatchResult>> segments = scanSegments(length, new SegmentScanner<List<MatchResult>>() {
+            @Override
+            public List<MatchResult> scan(int start, int end) {
+                return ParallelRopeSearch.this.scan(rope, pattern, end, start, null);
+            }
+        });
+        final List<MatchResult> ret = new ArrayList<MatchResult>();
+        for (int i = 0; i < segments.size(); i++) {
+            final int start = i*segmentLength;
+            final int end = end(start, length);
+            List<MatchResult> matches = segments.get(i);
+            if (!ret.isEmpty()) {
+                final MatchResult last = ret.get(ret.size()-1);
+                if (last.end() > end || (last.end() == end && end < length)) {
+                    // a match spans the whole segment, so no match can start in it
+                    continue;
+                }
+                if (last.end() > start) {
+                    matches = scan(rope, pattern, end, last.end(), matches);
+                }
+            }
+            ret.addAll(matches);
+        }
+        return ret;
+    }
+
+    /**
+     * @return index of the first occurrence of target in rope, or -1. the segments overlap by target.length()-1 chars
+     * regardless of the configured overlap.
+     */
+    public int indexOf(final Rope rope, CharSequence target) {
+        final String str = target.toString();
+        final int length = rope.length();
+        if (str.isEmpty()) {
+            return 0;
+        }
+        final List<Integer> segments = scanSegments(length, new SegmentScanner<Integer>() {
+            @Override
+            public Integer scan(int start, int end) {
+                final String view = rope.subSequence(start, (int) Math.min((long) end+str.length()-1, length)).toString();
+                final int index = view.indexOf(str);
+                return index >= 0 && index < end-start ? start+index : -1;
+            }
+        });
+        for (Integer index : segments) {
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int end(int start, int length) {
+        return (int) Math.min((long) start+segmentLength, length);
+    }
+
+    private interface SegmentScanner<R> {
+        R scan(int start, int end);
+    }
+
+    /**
+     * runs scanner on each segment, in the pool if there is more than one
+     */
+    private <R> List<R> scanSegments(final int length, final SegmentScanner<R> scanner) {
+        final List<R> ret = new ArrayList<R>();
+        if (length <= segmentLength) {
+            ret.add(scanner.scan(0, length));
+            return ret;
+        }
+        final List<ForkJoinTask<R>> tasks = new ArrayList<ForkJoinTask<R>>();
+        for (int start = 0; start < length; start = end(start, length)) {
+            final int segmentStart = start;
+            tasks.add(pool.submit(new Callable<R>() {
+                @Override
+                public R call() {
+                    return scanner.scan(segmentStart, end(segmentStart, length));
+                }
+            }));
+        }
+        for (ForkJoinTask<R> task : tasks) {
+            ret.add(task.join());
+        }
+        return ret;
+    }
+
+    /**
+     * finds the matches starting between from and end, or at end if it is the end of the rope
+     * @param known matches previously found in this segment, once a match equal to one of these is found the rest
+     * of them are used instead of continuing
+     */
+    private List<MatchResult> scan(Rope rope, Pattern pattern, int end, int from, @Nullable List<MatchResult> known) {
+        final int length = rope.length();
+        final int viewStart = Math.max(0, from-overlap);
+        long window = overlap;
+        int viewEnd = (int) Math.min(Math.max(end, from)+window, length);
+        Matcher matcher = matcher(rope, pattern, viewStart, viewEnd, from);
+        final List<MatchResult> ret = new ArrayList<MatchResult>();
+        // where the next find starts, one past an empty match as in Matcher.find
+        int position = from;
+        while (true) {
+            final boolean found = matcher.find();
+            if (matcher.hitEnd() && viewEnd < length) {
+                window *= 2;
+                viewEnd = (int) Math.min(Math.max(end, from)+window, length);
+                matcher = matcher(rope, pattern, viewStart, viewEnd, position);
+                continue;
+            }
+            if (!found || matcher.start()+viewStart > end || (matcher.start()+viewStart == end && end < length)) {
+                break;
+            }
+            final MatchResult match = new ShiftedMatchResult(matcher.toMatchResult(), viewStart);
+            if (known != null) {
+                for (int i = 0; i < known.size(); i++) {
+                    if (known.get(i).start() == match.start() && known.get(i).end() == match.end()) {
+                        ret.addAll(known.subList(i, known.size()));
+                        return ret;
+                    }
+                }
+            }
+            ret.add(match);
+            position = match.end() == match.start() ? match.end()+1 : match.end();
+        }
+        return ret;
+    }
+
+    private static Matcher matcher(Rope rope, Pattern pattern, int viewStart, int viewEnd, int from) {
+        final Matcher ret = pattern.matcher(rope.subSequence(viewStart, viewEnd).toString());
+        ret.useTransparentBounds(true);
+        ret.useAnchoringBounds(false);
+        ret.region(from-viewStart, viewEnd-viewStart);
+        return ret;
+    }
+
+    private static final class ShiftedMatchResult implements MatchResult {
+
+        private final MatchResult match;
+        private final int offset;
+
+        ShiftedMatchResult(MatchResult match, int offset) {
+            this.match = match;
+            this.offset = offset;
+        }
+
+        @Override
+        public int start() {
+            return match.start()+offset;
+        }
+
+        @Override
+        public int start(int group) {
+            final int ret = match.start(group);
+            return ret < 0 ? ret : ret+offset;
+        }
+
+        @Override
+        public int end() {
+            return match.end()+offset;
+        }
+
+        @Override
+        public int end(int group) {
+            final int ret = match.end(group);
+            return ret < 0 ? ret : ret+offset;
+        }
+
+        @Override
+        public String group() {
+            return match.group();
+        }
+
+        @Override
+        public String group(int group) {
+            return match.group(group);
+        }
+
+        @Override
+        public int groupCount() {
+            return match.groupCount();
+        }
+    }
+}
@@ -23,89 +23,148 @@ import com.google.common.collect.Iterables;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.io.CharStreams;
-import com.google.common.io.Closer;
 import com.google.common.io.InputSupplier;
 import com.jeffplaisance.util.Pair;
 import com.jeffplaisance.util.fingertree.Empty;
 import com.jeffplaisance.util.fingertree.FingerTree;
-import com.jeffplaisance.util.fingertree.Measured;
+import com.jeffplaisance.util.fingertree.FingerTreeCursor;
+import com.jeffplaisance.util.fingertree.FingerTrees;
+import com.jeffplaisance.util.fingertree.Lookup;
 import com.jeffplaisance.util.fingertree.Single;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
-import java.util.Arrays;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Rope implements CharSequence {
+public class Rope implements CharSequence, Comparable<Rope> {
 
     private static final int COPY_THRESHOLD = 64;
 
-    private static final Measured<Integer, String> STRING_LENGTH_MEASURED = new Measured<Integer, String>() {
-        @Override
-        public Integer sum(Integer a, Integer b) {
-            return a+b;
-        }
+    /**
+     * maximum chars per String leaf, keeps the scans of lineStart, lineOf, utf8Offset and offsetOfCodePoint and the
+     * copies made by edits bounded
+     */
+    private static final int MAX_STRING_CHUNK = 4096;
 
-        @Override
-        public Integer measure(String a) {
-            return a.length();
-        }
+    /**
+     * chunk size used by compact()
+     */
+    public static final int DEFAULT_COMPACT_CHUNK_SIZE = 1024;
 
-        @Override
-        public Integer zero() {
-            return 0;
-        }
-    };
+    private final FingerTree<TextMetrics, Chunk> data;
+
+    /**
+     * maximum chars per ByteChunk leaf for text added to this rope and the ropes derived from it, 0 if new text is
+     * kept in String leaves of at most MAX_STRING_CHUNK chars
+     */
+    private final int chunkSize;
 
-    private final FingerTree<Integer, String> data;
+    /**
+     * chunk last read by charAt, replaced rather than mutated so concurrent readers always see a consistent pair.
+     * readers that each need O(1) charAt use their own view() instead
+     */
+    private volatile Cursor cursor;
 
     public static Rope fromString(String str) {
-        return new Rope(new Single<Integer, String>(str, STRING_LENGTH_MEASURED));
+        return new Rope(leaves(str, 0), 0);
+    }
+
+    /**
+     * @see #compact(int)
+     */
+    public static Rope fromStringCompact(String str, int chunkSize) {
+        return fromString(str).compact(chunkSize);
     }
 
     public static Rope empty() {
-        return new Rope(new Empty<Integer, String>(STRING_LENGTH_MEASURED));
+        return new Rope(new Empty<TextMetrics, Chunk>(TextMetrics.MEASURED), 0);
     }
 
-    private Rope(FingerTree<Integer, String> data) {
+    private Rope(FingerTree<TextMetrics, Chunk> data, int chunkSize) {
         this.data = data;
+        this.chunkSize = chunkSize;
     }
 
     @Override
     public int length() {
+        return data.measure().utf16Length;
+    }
+
+    /**
+     * @return sizes of the whole rope, read from the root measure
+     */
+    public TextMetrics metrics() {
         return data.measure();
     }
 
+    /**
+     * O(1) if index is in the same chunk as the last char read, O(log n) otherwise, so sequential scans such as
+     * java.util.regex matching take O(n) in total. this holds for one reader at a time: the rope has a single cursor,
+     * so threads scanning different parts of the same rope keep replacing each other's chunk and each pays O(log n)
+     * per char. concurrent readers should each read through their own view().
+     */
     @Override
     public char charAt(final int index) {
-        final Pair<FingerTree<Integer, String>, FingerTree<Integer, String>> split = data.split(new Predicate<Integer>() {
-            @Override
-            public boolean apply(Integer integer) {
-                return integer > index;
-            }
-        });
-        return split.b().first().charAt(index - split.a().measure());
+        Cursor cursor = this.cursor;
+        if (cursor == null || !cursor.contains(index)) {
+            cursor = seek(index);
+            this.cursor = cursor;
+        }
+        return cursor.chunk.charAt(index-cursor.start);
+    }
+
+    /**
+     * @return cursor on the chunk containing index
+     */
+    private Cursor seek(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        final Lookup<TextMetrics, Chunk> lookup = data.lookup(TextMetrics.utf16LengthGreaterThan(index));
+        if (lookup == null) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new Cursor(lookup.getElement().forCharAt(), lookup.getMeasure().utf16Length);
+    }
+
+    /**
+     * @return view of this rope with its own charAt cursor, for use by one thread at a time. giving each concurrent
+     * reader its own view keeps charAt O(1) for sequential scans in every thread.
+     */
+    public CharSequence view() {
+        return new View();
     }
 
     @Override
     public Rope subSequence(final int start, final int end) {
-        final Pair<FingerTree<Integer, String>, FingerTree<Integer, String>> split1 = data.split(new Predicate<Integer>() {
-            @Override
-            public boolean apply(Integer integer) {
-                return integer > start;
-            }
-        });
-        final int headLength = split1.a().measure();
-        final FingerTree<Integer, String> substring = split1.b().takeUntil(new Predicate<Integer>() {
+        if (start == end) {
+            return new Rope(new Empty<TextMetrics, Chunk>(TextMetrics.MEASURED), chunkSize);
+        }
+        final Pair<FingerTree<TextMetrics, Chunk>, FingerTree<TextMetrics, Chunk>> split1 = data.split(TextMetrics.utf16LengthGreaterThan(start));
+        final int headLength = split1.a().measure().utf16Length;
+        final FingerTree<TextMetrics, Chunk> substring = split1.b().takeUntil(new Predicate<TextMetrics>() {
             @Override
-            public boolean apply(Integer integer) {
-                return integer >= end - headLength;
+            public boolean apply(TextMetrics metrics) {
+                return metrics.utf16Length >= end - headLength;
             }
         }, true);
-        final int substringLen = substring.measure();
-        final FingerTree<Integer, String> substring2 = substring.removeFirst().addFirst(substring.first().substring(start - headLength, substring.first().length()));
-        final FingerTree<Integer, String> substring3 = substring2.removeLast().addLast(substring2.last().substring(0, substring2.last().length() - (headLength + substringLen - end)));
-        return new Rope(substring3);
+        final int substringLen = substring.measure().utf16Length;
+        if (substring.removeFirst().isEmpty()) {
+            return new Rope(substring.removeFirst().addFirst(substring.first().subSequence(start - headLength, end - headLength)), chunkSize);
+        }
+        final FingerTree<TextMetrics, Chunk> substring2 = substring.removeFirst().addFirst(substring.first().subSequence(start - headLength, substring.first().length()));
+        final FingerTree<TextMetrics, Chunk> substring3 = substring2.removeLast().addLast(substring2.last().subSequence(0, substring2.last().length() - (headLength + substringLen - end)));
+        return new Rope(substring3, chunkSize);
     }
 
     public Rope substring(int start, int end) {
@@ -113,29 +172,282 @@ public class Rope implements CharSequence {
     }
 
     public Rope concat(Rope other) {
-        return new Rope(data.concat(other.data));
+        return new Rope(data.concat(other.data), chunkSize);
     }
 
     public Rope prepend(String str) {
-        if (!data.isEmpty() && str.length()+data.first().length() <= COPY_THRESHOLD) {
-            return new Rope(data.removeFirst().addFirst(str + data.first()));
-        }
-        return new Rope(data.addFirst(str));
+        return new Rope(join(leaves(str), data), chunkSize);
     }
 
     public Rope append(String str) {
-        if (!data.isEmpty() && str.length()+data.last().length() <= COPY_THRESHOLD) {
-            return new Rope(data.removeLast().addLast(data.last()+str));
+        return new Rope(join(data, leaves(str)), chunkSize);
+    }
+
+    /**
+     * @return compact(DEFAULT_COMPACT_CHUNK_SIZE)
+     */
+    public Rope compact() {
+        return compact(DEFAULT_COMPACT_CHUNK_SIZE);
+    }
+
+    /**
+     * copies the text into ByteChunk leaves of chunkSize chars, stored as Latin-1 when every char of a chunk is and
+     * as UTF-8 otherwise, with the metrics of each leaf computed once. chunks never end between the two halves of a
+     * surrogate pair. the result and the ropes derived from it keep to chunkSize: text they add is split into
+     * ByteChunk leaves of at most chunkSize chars, and leaves are only merged while the result fits. a Rope spliced
+     * in by replace keeps its own leaves.
+     * @param chunkSize chars per leaf, at least 2
+     */
+    public Rope compact(int chunkSize) {
+        if (chunkSize < 2) {
+            throw new IllegalArgumentException("chunkSize must be at least 2");
+        }
+        return new Rope(leaves(toString(), chunkSize), chunkSize);
+    }
+
+    private FingerTree<TextMetrics, Chunk> leaves(CharSequence text) {
+        return leaves(text, chunkSize);
+    }
+
+    /**
+     * @return text as ByteChunk leaves of at most chunkSize chars, or as String leaves of at most MAX_STRING_CHUNK
+     * chars if chunkSize is 0. leaves never end between the two halves of a surrogate pair
+     */
+    private static FingerTree<TextMetrics, Chunk> leaves(CharSequence text, int chunkSize) {
+        if (text.length() == 0) {
+            return new Empty<TextMetrics, Chunk>(TextMetrics.MEASURED);
+        }
+        final int maxLength = chunkSize == 0 ? MAX_STRING_CHUNK : chunkSize;
+        final String str = text.toString();
+        final List<Chunk> chunks = new ArrayList<Chunk>();
+        for (int start = 0; start < str.length(); ) {
+            int end = (int) Math.min((long) start+maxLength, str.length());
+            if (end < str.length() && Character.isHighSurrogate(str.charAt(end-1)) && Character.isLowSurrogate(str.charAt(end))) {
+                end--;
+            }
+            final String piece = str.substring(start, end);
+            chunks.add(chunkSize == 0 ? StringChunk.of(piece) : ByteChunk.of(piece));
+            start = end;
+        }
+        return FingerTrees.toTree(chunks, TextMetrics.MEASURED);
+    }
+
+    public Rope insert(int offset, CharSequence text) {
+        return replace(offset, offset, text);
+    }
+
+    public Rope delete(int start, int end) {
+        return replace(start, end, "");
+    }
+
+    /**
+     * replaces the chars between start and end with text. the tree is split at start and then at end, and the partial
+     * chunks around the edit, text and the two sides are rejoined with join, so pieces are only copied together while
+     * the result stays under COPY_THRESHOLD and otherwise stay separate leaves. besides text an edit copies only the
+     * parts of the leaves it cuts and at most COPY_THRESHOLD chars per join, and a Rope is spliced in as a tree.
+     */
+    public Rope replace(final int start, final int end, CharSequence text) {
+        if (start < 0 || end < start || end > length()) {
+            throw new IndexOutOfBoundsException();
+        }
+        final Pair<FingerTree<TextMetrics, Chunk>, FingerTree<TextMetrics, Chunk>> split1 = data.split(TextMetrics.utf16LengthGreaterThan(start));
+        final FingerTree<TextMetrics, Chunk> left = split1.a();
+        final int leftLength = left.measure().utf16Length;
+        final Pair<FingerTree<TextMetrics, Chunk>, FingerTree<TextMetrics, Chunk>> split2 = split1.b().split(TextMetrics.utf16LengthGreaterThan(end-leftLength));
+        FingerTree<TextMetrics, Chunk> right = split2.b();
+        FingerTree<TextMetrics, Chunk> middle = text instanceof Rope ? ((Rope) text).data : leaves(text);
+        if (start > leftLength) {
+            middle = join(single(split1.b().first().subSequence(0, start-leftLength)), middle);
+        }
+        if (!right.isEmpty()) {
+            final int tailStart = end-leftLength-split2.a().measure().utf16Length;
+            if (tailStart > 0) {
+                final Chunk tail = right.first().subSequence(tailStart, right.first().length());
+                right = right.removeFirst();
+                middle = join(middle, single(tail));
+            }
+        }
+        return new Rope(join(join(left, middle), right), chunkSize);
+    }
+
+    private static FingerTree<TextMetrics, Chunk> single(Chunk chunk) {
+        return new Single<TextMetrics, Chunk>(chunk, TextMetrics.MEASURED);
+    }
+
+    /**
+     * concats a and b, merging the chunks at the join if the result is at most COPY_THRESHOLD chars and fits in
+     * chunkSize
+     */
+    private FingerTree<TextMetrics, Chunk> join(FingerTree<TextMetrics, Chunk> a, FingerTree<TextMetrics, Chunk> b) {
+        final int limit = chunkSize == 0 ? COPY_THRESHOLD : Math.min(COPY_THRESHOLD, chunkSize);
+        if (!a.isEmpty() && !b.isEmpty() && a.last().length()+b.first().length() <= limit) {
+            return a.removeLast().addLast(ByteChunk.concat(a.last(), b.first())).concat(b.removeFirst());
+        }
+        return a.concat(b);
+    }
+
+    /**
+     * @return findAll(ParallelRopeSearch.DEFAULT, pattern)
+     */
+    public List<MatchResult> findAll(Pattern pattern) {
+        return findAll(ParallelRopeSearch.DEFAULT, pattern);
+    }
+
+    /**
+     * @return matches of pattern in order, found in parallel segments
+     * @see ParallelRopeSearch
+     */
+    public List<MatchResult> findAll(ParallelRopeSearch search, Pattern pattern) {
+        return search.findAll(this, pattern);
+    }
+
+    /**
+     * @return indexOf(ParallelRopeSearch.DEFAULT, target)
+     */
+    public int indexOf(CharSequence target) {
+        return indexOf(ParallelRopeSearch.DEFAULT, target);
+    }
+
+    /**
+     * @return index of the first occurrence of target, or -1, found in parallel segments
+     */
+    public int indexOf(ParallelRopeSearch search, CharSequence target) {
+        return search.indexOf(this, target);
+    }
+
+    /**
+     * @return number of lines, one more than the number of '\n' chars
+     */
+    public int lineCount() {
+        return data.measure().newlines+1;
+    }
+
+    /**
+     * O(log n) plus a scan of the chunk containing the line break, which is at most MAX_STRING_CHUNK or chunkSize
+     * chars for text added through this class
+     * @param line line number starting from 0
+     * @return offset of the first char of line
+     */
+    public int lineStart(final int line) {
+        if (line < 0 || line >= lineCount()) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (line == 0) {
+            return 0;
+        }
+        final Lookup<TextMetrics, Chunk> lookup = data.lookup(new Predicate<TextMetrics>() {
+            @Override
+            public boolean apply(TextMetrics metrics) {
+                return metrics.newlines >= line;
+            }
+        });
+        final CharSequence str = lookup.getElement().forCharAt();
+        int newlines = lookup.getMeasure().newlines;
+        for (int i = 0; ; i++) {
+            if (str.charAt(i) == '\n' && ++newlines == line) {
+                return lookup.getMeasure().utf16Length+i+1;
+            }
+        }
+    }
+
+    /**
+     * @param offset char offset between 0 and length()
+     * @return number of the line containing offset, starting from 0
+     */
+    public int lineOf(int offset) {
+        return prefixMetrics(offset).newlines;
+    }
+
+    /**
+     * @param index code point index between 0 and metrics().getCodePoints()
+     * @return char offset of the code point, length() if index is the number of code points
+     */
+    public int offsetOfCodePoint(final int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        final Lookup<TextMetrics, Chunk> lookup = data.lookup(new Predicate<TextMetrics>() {
+            @Override
+            public boolean apply(TextMetrics metrics) {
+                return metrics.codePoints > index;
+            }
+        });
+        if (lookup == null) {
+            if (index == data.measure().codePoints) {
+                return length();
+            }
+            throw new IndexOutOfBoundsException();
+        }
+        final CharSequence str = lookup.getElement().forCharAt();
+        int codePoints = lookup.getMeasure().codePoints;
+        boolean afterHighSurrogate = lookup.getMeasure().endsWithHighSurrogate;
+        for (int i = 0; ; i++) {
+            final char c = str.charAt(i);
+            if (!(afterHighSurrogate && Character.isLowSurrogate(c))) {
+                if (codePoints == index) {
+                    return lookup.getMeasure().utf16Length+i;
+                }
+                codePoints++;
+            }
+            afterHighSurrogate = Character.isHighSurrogate(c);
         }
-        return new Rope(data.addLast(str));
+    }
+
+    /**
+     * @param offset char offset between 0 and length()
+     * @return number of bytes in the UTF-8 encoding of the chars before offset
+     */
+    public int utf8Offset(int offset) {
+        return prefixMetrics(offset).utf8Length;
+    }
+
+    /**
+     * @return metrics of the first offset chars
+     */
+    private TextMetrics prefixMetrics(int offset) {
+        if (offset < 0 || offset > length()) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (offset == length()) {
+            return data.measure();
+        }
+        final Lookup<TextMetrics, Chunk> lookup = data.lookup(TextMetrics.utf16LengthGreaterThan(offset));
+        final int chunkOffset = offset-lookup.getMeasure().utf16Length;
+        return lookup.getMeasure().plus(TextMetrics.of(lookup.getElement().forCharAt(), 0, chunkOffset));
+    }
+
+    /**
+     * @return stream of the strings this rope is made of, in order, ByteChunk leaves are decoded
+     */
+    public Stream<String> chunks() {
+        return StreamSupport.stream(data.spliterator(), false).map(new java.util.function.Function<Chunk, String>() {
+            @Override
+            public String apply(Chunk chunk) {
+                return chunk.toString();
+            }
+        });
+    }
+
+    /**
+     * streams the chars of each chunk in turn instead of looking up every index, splits along chunk boundaries
+     * when parallel
+     */
+    @Override
+    public IntStream chars() {
+        return StreamSupport.stream(data.spliterator(), false).flatMapToInt(new java.util.function.Function<Chunk, IntStream>() {
+            @Override
+            public IntStream apply(Chunk chunk) {
+                return chunk.chars();
+            }
+        });
     }
 
     public Reader newReader() {
         try {
-            return CharStreams.join(Iterables.transform(data, new Function<String, InputSupplier<StringReader>>() {
+            return CharStreams.join(Iterables.transform(data, new Function<Chunk, InputSupplier<StringReader>>() {
                 @Override
-                public InputSupplier<StringReader> apply(String input) {
-                    return CharStreams.newReaderSupplier(input);
+                public InputSupplier<StringReader> apply(Chunk input) {
+                    return CharStreams.newReaderSupplier(input.toString());
                 }
             })).getInput();
         } catch (IOException e) {
@@ -143,74 +455,202 @@ public class Rope implements CharSequence {
         }
     }
 
-    public void writeTo(Appendable out) throws IOException {
-        for (String str : data) {
-            out.append(str);
+    public void writeTo(final Appendable out) throws IOException {
+        try {
+            data.forEach(new Consumer<Chunk>() {
+                @Override
+                public void accept(Chunk chunk) {
+                    try {
+                        out.append(chunk.toString());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
-    private static int read(Reader in, char[] chars, int off, int len)
-            throws IOException {
-        if (len < 0) {
-            throw new IndexOutOfBoundsException("len is negative");
+    /**
+     * descends both ropes together, a node or subtree that is the same object at the same offset in both is skipped
+     * without being read and overlapping ranges of differing chunks are compared with regionMatches, so comparing a
+     * rope to an edited copy of itself costs O(log n) plus the chunks that differ
+     * @param other rope to compare to
+     * @return index of the first char that differs, the length of the shorter rope if one is a prefix of the other,
+     * or -1 if they are equal
+     */
+    public int mismatch(Rope other) {
+        if (data == other.data) {
+            return -1;
         }
-        int total = 0;
-        while (total < len) {
-            final int result = in.read(chars, off + total, len - total);
-            if (result == -1) {
-                break;
+        final FingerTreeCursor<TextMetrics, Chunk> aCursor = new FingerTreeCursor<TextMetrics, Chunk>(data);
+        final FingerTreeCursor<TextMetrics, Chunk> bCursor = new FingerTreeCursor<TextMetrics, Chunk>(other.data);
+        String a = null;
+        String b = null;
+        int aOffset = 0;
+        int bOffset = 0;
+        int index = 0;
+        while (true) {
+            final boolean aDone = !aCursor.hasNext();
+            final boolean bDone = !bCursor.hasNext();
+            if (aDone || bDone) {
+                return aDone && bDone ? -1 : index;
+            }
+            // while neither side is partway through a chunk both are at the same offset, so identical items are equal
+            if (aOffset == 0 && bOffset == 0 && aCursor.peek() == bCursor.peek()) {
+                index += aCursor.measure().utf16Length;
+                aCursor.skip();
+                bCursor.skip();
+                continue;
+            }
+            if (!aCursor.atElement() || !bCursor.atElement()) {
+                final int aLength = aCursor.measure().utf16Length-aOffset;
+                final int bLength = bCursor.measure().utf16Length-bOffset;
+                if (!aCursor.atElement() && (bCursor.atElement() || aLength >= bLength)) {
+                    aCursor.descend();
+                }
+                if (!bCursor.atElement() && (aCursor.atElement() || bLength >= aLength)) {
+                    bCursor.descend();
+                }
+                continue;
+            }
+            if (a == null) {
+                a = aCursor.element().toString();
+            }
+            if (b == null) {
+                b = bCursor.element().toString();
+            }
+            final int length = Math.min(a.length()-aOffset, b.length()-bOffset);
+            if (!a.regionMatches(aOffset, b, bOffset, length)) {
+                for (int i = 0; ; i++) {
+                    if (a.charAt(aOffset+i) != b.charAt(bOffset+i)) {
+                        return index+i;
+                    }
+                }
+            }
+            aOffset += length;
+            bOffset += length;
+            index += length;
+            if (aOffset == a.length()) {
+                aCursor.skip();
+                a = null;
+                aOffset = 0;
             }
-            total += result;
+            if (bOffset == b.length()) {
+                bCursor.skip();
+                b = null;
+                bOffset = 0;
+            }
+        }
+    }
+
+    /**
+     * compares lexicographically by char value, the same order as String.compareTo
+     */
+    @Override
+    public int compareTo(Rope other) {
+        final int mismatch = mismatch(other);
+        if (mismatch < 0) {
+            return 0;
+        }
+        if (mismatch == length()) {
+            return -1;
+        }
+        if (mismatch == other.length()) {
+            return 1;
         }
-        return total;
+        return charAt(mismatch) - other.charAt(mismatch);
     }
 
     @Override
     public boolean equals(Object o) {
-        if (o == null) {
-            return false;
+        if (o == this) {
+            return true;
         }
-        if (!(o instanceof Rope)) {
+        if (o == null || !(o instanceof Rope)) {
             return false;
         }
         final Rope other = (Rope) o;
-        if (length() != other.length()) {
-            return false;
-        }
-        final int bufLen = Math.max(length(), 1024);
-        final char[] buf1 = new char[bufLen];
-        final char[] buf2 = new char[bufLen];
+        return length() == other.length() && mismatch(other) < 0;
+    }
 
-        try {
-            final Closer closer = Closer.create();
-            try {
-                final Reader in1 = closer.register(newReader());
-                final Reader in2 = closer.register(other.newReader());
-                while (true) {
-                    final int read1 = read(in1, buf1, 0, bufLen);
-                    final int read2 = read(in2, buf2, 0, bufLen);
-                    if (read1 != read2 || !Arrays.equals(buf1, buf2)) {
-                        return false;
-                    } else if (read1 != bufLen) {
-                        return true;
-                    }
-                }
-            } catch (Throwable e) {
-                throw closer.rethrow(e);
-            } finally {
-                closer.close();
+    @Override
+    public String toString() {
+        final StringBuilder ret = new StringBuilder(length());
+        data.forEach(new Consumer<Chunk>() {
+            @Override
+            public void accept(Chunk chunk) {
+                ret.append(chunk.toString());
             }
-        } catch (IOException e) {
-            throw Throwables.propagate(e);
-        }
+        });
+        return ret.toString();
     }
 
     @Override
     public int hashCode() {
         final Hasher hasher = Hashing.murmur3_32().newHasher();
-        for (String str : data) {
-            hasher.putString(str);
-        }
+        data.forEach(new Consumer<Chunk>() {
+            @Override
+            public void accept(Chunk chunk) {
+                hasher.putString(chunk.toString());
+            }
+        });
         return hasher.hash().asInt();
     }
+
+    private final class View implements CharSequence {
+
+        private Cursor cursor;
+
+        @Override
+        public int length() {
+            return Rope.this.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (cursor == null || !cursor.contains(index)) {
+                cursor = seek(index);
+            }
+            return cursor.chunk.charAt(index-cursor.start);
+        }
+
+        @Override
+        public Rope subSequence(int start, int end) {
+            return Rope.this.subSequence(start, end);
+        }
+
+        @Override
+        public IntStream chars() {
+            return Rope.this.chars();
+        }
+
+        @Override
+        public String toString() {
+            return Rope.this.toString();
+        }
+    }
+
+    private static final class Cursor {
+
+        /**
+         * chars of the leaf, decoded if it is a UTF-8 ByteChunk
+         */
+        final CharSequence chunk;
+
+        /**
+         * offset of the first char of chunk in the rope
+         */
+        final int start;
+
+        Cursor(CharSequence chunk, int start) {
+            this.chunk = chunk;
+            this.start = start;
+        }
+
+        boolean contains(int index) {
+            return index >= start && index-start < chunk.length();
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.rope;
+
+import java.util.stream.IntStream;
+
+/**
+ * rope leaf holding its text as a String
+ */
+final class StringChunk extends Chunk {
+
+    private final String text;
+
+    private StringChunk(String text, TextMetrics metrics) {
+        super(metrics);
+        this.text = text;
+    }
+
+    static StringChunk of(CharSequence text) {
+        final String str = text.toString();
+        return new StringChunk(str, TextMetrics.of(str));
+    }
+
+    @Override
+    public char charAt(int index) {
+        return text.charAt(index);
+    }
+
+    /**
+     * scans whichever is shorter, the chars between start and end or the chars outside them, whose metrics are then
+     * subtracted from the metrics of this chunk
+     */
+    @Override
+    public StringChunk subSequence(int start, int end) {
+        final int length = text.length();
+        if (start == 0 && end == length) {
+            return this;
+        }
+        final String str = text.substring(start, end);
+        if (end-start <= length/2) {
+            return new StringChunk(str, TextMetrics.of(str));
+        }
+        final TextMetrics rest = metrics
+                .minusPrefix(TextMetrics.of(text, 0, start), Character.isLowSurrogate(text.charAt(start)))
+                .minusSuffix(TextMetrics.of(text, end, length), Character.isHighSurrogate(text.charAt(end-1)));
+        return new StringChunk(str, rest);
+    }
+
+    @Override
+    public IntStream chars() {
+        return text.chars();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    @Override
+    CharSequence forCharAt() {
+        return text;
+    }
+}
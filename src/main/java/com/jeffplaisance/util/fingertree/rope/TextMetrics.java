@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.util.fingertree.rope;
+
+import com.google.common.base.Predicate;
+import com.jeffplaisance.util.fingertree.Measured;
+
+/**
+ * sizes of a piece of text in UTF-16 units, code points, newlines and UTF-8 bytes
+ *
+ * a surrogate pair may be split between two pieces, so each metrics also records whether its text starts with a low
+ * surrogate or ends with a high surrogate and sum counts a pair split across the boundary once. an unpaired surrogate
+ * counts as one code point and 3 UTF-8 bytes. lines are separated by '\n', so "\r\n" ends a line and a lone '\r' does
+ * not.
+ */
+public final class TextMetrics {
+
+    static final TextMetrics ZERO = new TextMetrics(0, 0, 0, 0, false, false);
+
+    static final Measured<TextMetrics, Chunk> MEASURED = new Measured<TextMetrics, Chunk>() {
+        @Override
+        public TextMetrics sum(TextMetrics a, TextMetrics b) {
+            return a.plus(b);
+        }
+
+        @Override
+        public TextMetrics measure(Chunk a) {
+            return a.metrics;
+        }
+
+        @Override
+        public TextMetrics zero() {
+            return ZERO;
+        }
+    };
+
+    final int utf16Length;
+    final int codePoints;
+    final int newlines;
+    final int utf8Length;
+    final boolean startsWithLowSurrogate;
+    final boolean endsWithHighSurrogate;
+
+    private TextMetrics(int utf16Length, int codePoints, int newlines, int utf8Length, boolean startsWithLowSurrogate, boolean endsWithHighSurrogate) {
+        this.utf16Length = utf16Length;
+        this.codePoints = codePoints;
+        this.newlines = newlines;
+        this.utf8Length = utf8Length;
+        this.startsWithLowSurrogate = startsWithLowSurrogate;
+        this.endsWithHighSurrogate = endsWithHighSurrogate;
+    }
+
+    public static TextMetrics of(CharSequence str) {
+        return of(str, 0, str.length());
+    }
+
+    /**
+     * @return metrics of the chars of str between start and end
+     */
+    static TextMetrics of(CharSequence str, int start, int end) {
+        if (start == end) {
+            return ZERO;
+        }
+        int codePoints = 0;
+        int newlines = 0;
+        int utf8Length = 0;
+        for (int i = start; i < end; i++) {
+            final char c = str.charAt(i);
+            codePoints++;
+            if (c < 0x80) {
+                utf8Length++;
+                if (c == '\n') {
+                    newlines++;
+                }
+            } else if (c < 0x800) {
+                utf8Length += 2;
+            } else if (Character.isHighSurrogate(c) && i+1 < end && Character.isLowSurrogate(str.charAt(i+1))) {
+                utf8Length += 4;
+                i++;
+            } else {
+                utf8Length += 3;
+            }
+        }
+        return new TextMetrics(
+                end-start,
+                codePoints,
+                newlines,
+                utf8Length,
+                Character.isLowSurrogate(str.charAt(start)),
+                Character.isHighSurrogate(str.charAt(end-1))
+        );
+    }
+
+    /**
+     * inverse of plus, the metrics of what remains of this text after removing a prefix
+     * @param prefix metrics of the prefix removed
+     * @param restStartsWithLowSurrogate whether the remaining text starts with a low surrogate
+     */
+    TextMetrics minusPrefix(TextMetrics prefix, boolean restStartsWithLowSurrogate) {
+        if (prefix.utf16Length == 0) {
+            return this;
+        }
+        if (prefix.utf16Length == utf16Length) {
+            return ZERO;
+        }
+        final boolean joined = prefix.endsWithHighSurrogate && restStartsWithLowSurrogate;
+        return new TextMetrics(
+                utf16Length-prefix.utf16Length,
+                codePoints-prefix.codePoints+(joined ? 1 : 0),
+                newlines-prefix.newlines,
+                utf8Length-prefix.utf8Length+(joined ? 2 : 0),
+                restStartsWithLowSurrogate,
+                endsWithHighSurrogate
+        );
+    }
+
+    /**
+     * inverse of plus, the metrics of what remains of this text after removing a suffix
+     * @param suffix metrics of the suffix removed
+     * @param restEndsWithHighSurrogate whether the remaining text ends with a high surrogate
+     */
+    TextMetrics minusSuffix(TextMetrics suffix, boolean restEndsWithHighSurrogate) {
+        if (suffix.utf16Length == 0) {
+            return this;
+        }
+        if (suffix.utf16Length == utf16Length) {
+            return ZERO;
+        }
+        final boolean joined = restEndsWithHighSurrogate && suffix.startsWithLowSurrogate;
+        return new TextMetrics(
+                utf16Length-suffix.utf16Length,
+                codePoints-suffix.codePoints+(joined ? 1 : 0),
+                newlines-suffix.newlines,
+                utf8Length-suffix.utf8Length+(joined ? 2 : 0),
+                startsWithLowSurrogate,
+                restEndsWithHighSurrogate
+        );
+    }
+
+    TextMetrics plus(TextMetrics b) {
+        if (utf16Length == 0) {
+            return b;
+        }
+        if (b.utf16Length == 0) {
+            return this;
+        }
+        final boolean joined = endsWithHighSurrogate && b.startsWithLowSurrogate;
+        return new TextMetrics(
+                utf16Length+b.utf16Length,
+                codePoints+b.codePoints-(joined ? 1 : 0),
+                newlines+b.newlines,
+                utf8Length+b.utf8Length-(joined ? 2 : 0),
+                startsWithLowSurrogate,
+                b.endsWithHighSurrogate
+        );
+    }
+
+    public int getUtf16Length() {
+        return utf16Length;
+    }
+
+    public int getCodePoints() {
+        return codePoints;
+    }
+
+    public int getNewlines() {
+        return newlines;
+    }
+
+    public int getUtf8Length() {
+        return utf8Length;
+    }
+
+    static Predicate<TextMetrics> utf16LengthGreaterThan(final int length) {
+        return new Predicate<TextMetrics>() {
+            @Override
+            public boolean apply(TextMetrics metrics) {
+                return metrics.utf16Length > length;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final TextMetrics other = (TextMetrics) o;
+        return utf16Length == other.utf16Length
+                && codePoints == other.codePoints
+                && newlines == other.newlines
+                && utf8Length == other.utf8Length
+                && startsWithLowSurrogate == other.startsWithLowSurrogate
+                && endsWithHighSurrogate == other.endsWithHighSurrogate;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = utf16Length;
+        result = 31*result+codePoints;
+        result = 31*result+newlines;
+        result = 31*result+utf8Length;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TextMetrics{utf16Length=" + utf16Length + ", codePoints=" + codePoints + ", newlines=" + newlines
+                + ", utf8Length=" + utf8Length + "}";
+    }
+}
@@ -16,8 +16,268 @@
 
 package com.jeffplaisance.fingertree;
 
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.jeffplaisance.util.Pair;
+import com.jeffplaisance.util.fingertree.Empty;
+import com.jeffplaisance.util.fingertree.FingerTree;
+import com.jeffplaisance.util.fingertree.FingerTrees;
+import com.jeffplaisance.util.fingertree.LongLookup;
+import com.jeffplaisance.util.fingertree.LongMeasured;
+import com.jeffplaisance.util.fingertree.Lookup;
+import com.jeffplaisance.util.fingertree.Measured;
+import com.jeffplaisance.util.fingertree.ParallelFingerTrees;
+import com.jeffplaisance.util.fingertree.TransientFingerTree;
 import junit.framework.TestCase;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
 public class TestFingerTree extends TestCase {
+
+    private static final LongMeasured<Long> SUM_MEASURED = new LongMeasured<Long>() {
+        @Override
+        public long sumLong(long a, long b) {
+            return a+b;
+        }
+
+        @Override
+        public long measureLong(Long a) {
+            return a;
+        }
+
+        @Override
+        public long zeroLong() {
+            return 0;
+        }
+    };
+
     public void testStuff() {}
+
+    public void testLongSplit() {
+        final List<Long> list = Lists.newArrayList();
+        FingerTree<Long, Long> tree = new Empty<Long, Long>(SUM_MEASURED);
+        for (long i = 0; i < 1000; i++) {
+            list.add(i);
+            tree = tree.addLast(i);
+        }
+        long sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            final long prefixSum = sum;
+            final Pair<FingerTree<Long, Long>, FingerTree<Long, Long>> split = tree.splitLong(new LongPredicate() {
+                @Override
+                public boolean test(long value) {
+                    return value > prefixSum;
+                }
+            });
+            assertTrue(Iterables.elementsEqual(list.subList(0, i+1), split.a()));
+            assertTrue(Iterables.elementsEqual(list.subList(i+1, list.size()), split.b()));
+            assertEquals(prefixSum, (long) split.a().measure());
+            sum += i+1;
+        }
+    }
+
+    public void testBoxedLambdaSplit() {
+        FingerTree<Long, Long> tree = new Empty<Long, Long>(SUM_MEASURED);
+        for (long i = 1; i <= 10; i++) {
+            tree = tree.addLast(i);
+        }
+        final Pair<FingerTree<Long, Long>, FingerTree<Long, Long>> split = tree.split(v -> v > 5);
+        assertEquals(Arrays.asList(1L, 2L), Lists.newArrayList(split.a()));
+        assertEquals(Arrays.asList(1L, 2L, 3L), Lists.newArrayList(tree.takeUntil(v -> v > 5, true)));
+        assertEquals(Arrays.asList(3L, 4L), Lists.newArrayList(tree.dropUntil(v -> v > 5).takeUntil(v -> v > 7)));
+    }
+
+    public void testLookup() {
+        FingerTree<Long, Long> tree = new Empty<Long, Long>(SUM_MEASURED);
+        for (long i = 1; i <= 1000; i++) {
+            tree = tree.addLast(i);
+        }
+        long sum = 0;
+        for (long i = 1; i <= 1000; i++) {
+            final long prefixSum = sum;
+            final LongLookup<Long> lookup = tree.lookupLong(new LongPredicate() {
+                @Override
+                public boolean test(long value) {
+                    return value > prefixSum;
+                }
+            });
+            assertEquals(i, (long) lookup.getElement());
+            assertEquals(prefixSum, lookup.getMeasure());
+            final Lookup<Long, Long> boxedLookup = tree.lookup(new Predicate<Long>() {
+                @Override
+                public boolean apply(Long value) {
+                    return value > prefixSum;
+                }
+            });
+            assertEquals(i, (long) boxedLookup.getElement());
+            assertEquals(prefixSum, (long) boxedLookup.getMeasure());
+            sum += i;
+        }
+        assertNull(tree.lookupLong(new LongPredicate() {
+            @Override
+            public boolean test(long value) {
+                return value > 1000*1001/2;
+            }
+        }));
+        assertEquals(3L, (long) tree.lookup(v -> v > 5).getElement());
+    }
+
+    public void testTransient() {
+        for (int initial = 0; initial < 30; initial++) {
+            for (int added = 0; added < 60; added++) {
+                FingerTree<Long, Long> tree = new Empty<Long, Long>(SUM_MEASURED);
+                final List<Long> list = Lists.newArrayList();
+                for (long i = 0; i < initial; i++) {
+                    tree = tree.addLast(i);
+                    list.add(i);
+                }
+                final TransientFingerTree<Long, Long> builder = tree.asTransient();
+                for (long i = 0; i < added; i++) {
+                    if (i % 3 == 0) {
+                        builder.addFirst(-i-1);
+                        list.add(0, -i-1);
+                    } else {
+                        builder.addLast(initial+i);
+                        list.add(initial+i);
+                    }
+                }
+                final FingerTree<Long, Long> result = builder.persistent();
+                assertTrue(Iterables.elementsEqual(list, result));
+                assertEquals(initial, Iterables.size(tree));
+                FingerTree<Long, Long> removed = result;
+                for (Long l : list) {
+                    assertEquals(l, removed.first());
+                    removed = removed.removeFirst();
+                }
+                assertTrue(removed.isEmpty());
+                try {
+                    builder.addLast(0L);
+                    fail();
+                } catch (IllegalStateException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    public void testIterator() {
+        for (int size = 1; size < 500; size += size < 50 ? 1 : 37) {
+            final List<Long> list = Lists.newArrayList();
+            FingerTree<Long, Long> appended = new Empty<Long, Long>(SUM_MEASURED);
+            FingerTree<Long, Long> prepended = new Empty<Long, Long>(SUM_MEASURED);
+            for (long i = 0; i < size; i++) {
+                list.add(i);
+                appended = appended.addLast(i);
+                prepended = prepended.addFirst(size-1-i);
+            }
+            final FingerTree<Long, Long> concatenated = FingerTrees.toTree(list.subList(0, size/2), SUM_MEASURED)
+                    .concat(FingerTrees.toTree(list.subList(size/2, size), SUM_MEASURED))
+                    .removeFirst().addFirst(0L);
+            for (FingerTree<Long, Long> tree : Arrays.asList(appended, prepended, concatenated)) {
+                assertTrue(Iterators.elementsEqual(list.iterator(), tree.iterator()));
+                assertTrue(Iterators.elementsEqual(Lists.reverse(list).iterator(), tree.reverseIterator()));
+            }
+        }
+    }
+
+    public void testFold() {
+        for (int size = 0; size < 300; size += size < 30 ? 1 : 29) {
+            final List<Long> list = Lists.newArrayList();
+            FingerTree<Long, Long> tree = new Empty<Long, Long>(SUM_MEASURED);
+            for (long i = 0; i < size; i++) {
+                list.add(i);
+                tree = tree.addLast(i);
+            }
+            final List<Long> visited = Lists.newArrayList();
+            tree.forEach(new Consumer<Long>() {
+                @Override
+                public void accept(Long l) {
+                    visited.add(l);
+                }
+            });
+            assertEquals(list, visited);
+            final List<Long> reversed = tree.foldRight(Lists.<Long>newArrayList(), new BiFunction<List<Long>, Long, List<Long>>() {
+                @Override
+                public List<Long> apply(List<Long> acc, Long l) {
+                    acc.add(l);
+                    return acc;
+                }
+            });
+            assertEquals(Lists.reverse(list), reversed);
+            final long polynomial = tree.foldLeftLong(0L, new FingerTree.LongFolder<Long>() {
+                @Override
+                public long apply(long acc, Long l) {
+                    return acc*31+l;
+                }
+            });
+            long expected = 0;
+            for (Long l : list) {
+                expected = expected*31+l;
+            }
+            assertEquals(expected, polynomial);
+            final int count = tree.foldRightInt(0, new FingerTree.IntFolder<Long>() {
+                @Override
+                public int apply(int acc, Long l) {
+                    return acc+1;
+                }
+            });
+            assertEquals(size, count);
+        }
+    }
+
+    public void testParallel() {
+        final Measured<long[], Long> polynomial = new Measured<long[], Long>() {
+            @Override
+            public long[] sum(long[] a, long[] b) {
+                return new long[]{a[0]*b[1]+b[0], a[1]*b[1]};
+            }
+
+            @Override
+            public long[] measure(Long a) {
+                return new long[]{a, 31};
+            }
+
+            @Override
+            public long[] zero() {
+                return new long[]{0, 1};
+            }
+        };
+        final ParallelFingerTrees parallel = new ParallelFingerTrees(ForkJoinPool.commonPool(), 4);
+        for (int size = 0; size < 100000; size = size*3+1) {
+            final Long[] array = new Long[size];
+            FingerTree<Long, Long> tree = new Empty<Long, Long>(SUM_MEASURED);
+            long expected = 0;
+            for (int i = 0; i < size; i++) {
+                array[i] = (long) i;
+                tree = tree.addLast((long) i);
+                expected = expected*31+i;
+            }
+            final FingerTree<Long, Long> built = parallel.fromArray(array, SUM_MEASURED);
+            assertTrue(Iterables.elementsEqual(Arrays.asList(array), built));
+            assertEquals(tree.measure(), built.measure());
+            assertEquals(expected, parallel.reduce(tree, polynomial)[0]);
+            assertEquals(expected, parallel.reduce(built, polynomial)[0]);
+            final FingerTree<Long, Long> doubled = parallel.map(tree, new Function<Long, Long>() {
+                @Override
+                public Long apply(Long l) {
+                    return l*2;
+                }
+            }, SUM_MEASURED);
+            assertEquals(tree.measure()*2, (long) doubled.measure());
+            final Iterator<Long> iterator = doubled.iterator();
+            for (int i = 0; i < size; i++) {
+                assertEquals(i*2, (long) iterator.next());
+            }
+            assertFalse(iterator.hasNext());
+        }
+    }
 }
@@ -20,11 +20,26 @@ import com.google.common.base.Charsets;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
 import com.jeffplaisance.util.fingertree.bytestring.ByteString;
+import com.jeffplaisance.util.fingertree.bytestring.ByteStringArena;
+import com.jeffplaisance.util.fingertree.bytestring.ByteStringOutput;
+import com.jeffplaisance.util.fingertree.bytestring.ChunkPool;
+import com.jeffplaisance.util.fingertree.bytestring.CompactionPolicy;
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 public class TestFingerTreeByteString extends TestCase {
     public void testStuff() throws IOException {
@@ -65,4 +80,475 @@ public class TestFingerTreeByteString extends TestCase {
         System.out.println();
         System.out.println(start/1000000d+" ms");
     }
+
+    public void testMap() throws IOException {
+        final byte[] bytes = new byte[100000];
+        new Random(0).nextBytes(bytes);
+        final File file = File.createTempFile("bytestring", ".bin");
+        try {
+            Files.write(file.toPath(), bytes);
+            final ByteString mapped = ByteString.map(file.toPath());
+            assertEquals(bytes.length, mapped.length());
+            assertEquals(ByteString.fromBytes(bytes), mapped);
+            for (int i = 0; i < bytes.length; i += 997) {
+                assertEquals(bytes[i], mapped.getByte(i));
+            }
+            final ByteString spliced = mapped.substring(1000, 2000).concat(ByteString.fromBytes(bytes, 0, 10)).concat(mapped.substring(50000));
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            spliced.writeTo(out);
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            expected.write(bytes, 1000, 1000);
+            expected.write(bytes, 0, 10);
+            expected.write(bytes, 50000, bytes.length-50000);
+            assertTrue(Arrays.equals(expected.toByteArray(), out.toByteArray()));
+            assertTrue(Arrays.equals(expected.toByteArray(), ByteStreams.toByteArray(spliced.newInput())));
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testChannels() throws IOException {
+        final Random r = new Random(0);
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteString byteString = ByteString.empty();
+        for (int i = 0; i < 3000; i++) {
+            final byte[] bytes = new byte[200+r.nextInt(100)];
+            r.nextBytes(bytes);
+            expected.write(bytes);
+            byteString = byteString.concat(ByteString.fromBytes(bytes));
+        }
+        int total = 0;
+        for (ByteBuffer buffer : byteString.asReadOnlyByteBufferList()) {
+            assertTrue(buffer.isReadOnly());
+            total += buffer.remaining();
+        }
+        assertEquals(byteString.length(), total);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byteString.writeTo(Channels.newChannel(out));
+        assertTrue(Arrays.equals(expected.toByteArray(), out.toByteArray()));
+
+        final File file = File.createTempFile("bytestring", ".bin");
+        try {
+            final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+            try {
+                byteString.writeTo(channel);
+            } finally {
+                channel.close();
+            }
+            assertTrue(Arrays.equals(expected.toByteArray(), Files.readAllBytes(file.toPath())));
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testReadFrom() throws IOException {
+        final byte[] bytes = new byte[20000];
+        new Random(0).nextBytes(bytes);
+        final ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+        final ByteString limited = ByteString.readFrom(in, 1000, 12345);
+        assertEquals(ByteString.fromBytes(bytes, 0, 12345), limited);
+        assertEquals(13, limited.asReadOnlyByteBufferList().size());
+        assertEquals(bytes[12345] & 0xFF, in.read());
+        assertEquals(ByteString.fromBytes(bytes), ByteString.readFrom(new ByteArrayInputStream(bytes)));
+        assertEquals(0, ByteString.readFrom(new ByteArrayInputStream(new byte[0])).length());
+
+        final ByteString fromChannel = ByteString.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)), 3000, Integer.MAX_VALUE);
+        assertEquals(ByteString.fromBytes(bytes), fromChannel);
+        assertEquals(7, fromChannel.asReadOnlyByteBufferList().size());
+        assertEquals(ByteString.fromBytes(bytes, 0, 5000), ByteString.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)), 3000, 5000));
+    }
+
+    public void testArena() throws IOException {
+        final byte[] bytes = new byte[10000];
+        new Random(0).nextBytes(bytes);
+        final ByteStringArena arena = new ByteStringArena();
+        final ByteString direct = arena.copyOf(bytes, 0, bytes.length);
+        final ByteString fromChannel = arena.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)), 1024, Integer.MAX_VALUE);
+        assertEquals(bytes.length+10*1024, arena.allocatedBytes());
+        final ByteString exact = arena.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes, 0, 2048)), 1024, Integer.MAX_VALUE);
+        assertEquals(2048, exact.length());
+        assertEquals(bytes.length+12*1024, arena.allocatedBytes());
+        assertTrue(direct.asReadOnlyByteBufferList().get(0).isDirect());
+        assertEquals(ByteString.fromBytes(bytes), direct);
+        assertEquals(ByteString.fromBytes(bytes), fromChannel);
+        assertEquals(ByteString.fromBytes(bytes), ByteString.wrap(ByteBuffer.wrap(bytes)));
+
+        final ByteString spliced = direct.substring(100, 5000).concat(ByteString.fromBytes(bytes, 0, 1000)).concat(fromChannel.substring(9000));
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(bytes, 100, 4900);
+        expected.write(bytes, 0, 1000);
+        expected.write(bytes, 9000, 1000);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        spliced.writeTo(Channels.newChannel(out));
+        assertTrue(Arrays.equals(expected.toByteArray(), out.toByteArray()));
+        assertEquals(bytes[0], spliced.getByte(4900));
+
+        final ByteString small = direct.substring(0, 10).concat(ByteString.fromBytes(bytes, 10, 10));
+        arena.close();
+        assertTrue(arena.isReleased());
+        assertEquals(0, arena.allocatedBytes());
+        assertEquals(ByteString.fromBytes(bytes, 0, 20), small);
+        try {
+            spliced.getByte(0);
+            fail();
+        } catch (IllegalStateException expectedException) {
+        }
+        try {
+            arena.copyOf(bytes, 0, 10);
+            fail();
+        } catch (IllegalStateException expectedException) {
+        }
+    }
+
+    public void testLazy() throws IOException {
+        final long[] read = new long[1];
+        final InputStream unbounded = new InputStream() {
+            @Override
+            public int read() {
+                return (int) (read[0]++ % 251);
+            }
+        };
+        final ByteString lazy = ByteString.readLazily(unbounded, 100);
+        assertEquals(0, read[0]);
+        assertEquals((byte) 250, lazy.getByte(250));
+        assertEquals(300, read[0]);
+
+        final byte[] header = "header".getBytes(Charsets.UTF_8);
+        final ByteString spliced = ByteString.fromBytes(header).concat(lazy);
+        final ByteString prefix = spliced.substring(0, 1006);
+        assertEquals(1006, prefix.length());
+        for (int i = 0; i < header.length; i++) {
+            assertEquals(header[i], prefix.getByte(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals((byte) (i % 251), prefix.getByte(i+header.length));
+        }
+        assertEquals(1000, read[0]);
+
+        final ByteString tail = lazy.substring(5000);
+        assertEquals((byte) (5000 % 251), tail.getByte(0));
+        assertEquals((byte) (5150 % 251), tail.substring(0, 200).getByte(150));
+        assertEquals(5200, read[0]);
+
+        final byte[] bytes = new byte[10000];
+        new Random(0).nextBytes(bytes);
+        final ByteString finite = ByteString.readLazily(Channels.newChannel(new ByteArrayInputStream(bytes)), 999);
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(bytes[i], finite.getByte(i));
+        }
+        for (int i = bytes.length-1; i >= 0; i -= 97) {
+            assertEquals(bytes[i], finite.getByte(i));
+            assertEquals(ByteString.fromBytes(bytes, i, Math.min(50, bytes.length-i)), finite.substring(i, Math.min(i+50, bytes.length)));
+        }
+        assertEquals(ByteString.fromBytes(bytes, 5000, 5000), finite.substring(5000));
+        assertEquals(bytes.length, finite.length());
+        assertEquals(ByteString.fromBytes(bytes), finite);
+        assertTrue(Arrays.equals(bytes, ByteStreams.toByteArray(finite.newInput())));
+        assertEquals(ByteString.fromBytes(bytes).concat(ByteString.fromBytes(header)), finite.concat(ByteString.fromBytes(header)));
+    }
+
+    public void testOutOfRange() {
+        final byte[] bytes = new byte[1000];
+        new Random(0).nextBytes(bytes);
+        assertOutOfRange(ByteString.fromBytes(bytes, 100, 800), 800);
+        assertOutOfRange(ByteString.fromBytes(bytes, 0, 500).concat(ByteString.fromBytes(bytes, 500, 500)), 1000);
+        assertOutOfRange(ByteString.readLazily(Channels.newChannel(new ByteArrayInputStream(bytes)), 99), 1000);
+        assertOutOfRange(ByteString.fromBytes(new byte[10]).concat(ByteString.readLazily(Channels.newChannel(new ByteArrayInputStream(bytes)), 99)), 1010);
+    }
+
+    private static void assertOutOfRange(final ByteString bytes, final int length) {
+        final List<Runnable> accesses = Arrays.<Runnable>asList(
+                () -> bytes.getByte(-1),
+                () -> bytes.getByte(length),
+                () -> bytes.substring(-1, 10),
+                () -> bytes.substring(10, 5),
+                () -> bytes.substring(0, length+1),
+                () -> bytes.substring(length+1, length+1),
+                () -> bytes.substring(-1),
+                () -> bytes.substring(length+1),
+                () -> bytes.substringHash(0, length+1)
+        );
+        for (int i = 0; i < accesses.size(); i++) {
+            try {
+                accesses.get(i).run();
+                fail("access "+i+" did not throw");
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+        assertEquals(length, bytes.length());
+        assertEquals(0, bytes.substring(length).length());
+        assertEquals(0, bytes.substring(length, length).length());
+    }
+
+    public void testHash() {
+        final Random r = new Random(0);
+        final byte[] bytes = new byte[20000];
+        r.nextBytes(bytes);
+        ByteString byteString = ByteString.empty();
+        for (int i = 0; i < bytes.length; ) {
+            final int length = Math.min(1+r.nextInt(300), bytes.length-i);
+            byteString = byteString.concat(ByteString.fromBytes(bytes, i, length));
+            i += length;
+        }
+        assertEquals(hash(bytes, 0, bytes.length), byteString.hashCode());
+        assertEquals(ByteString.fromBytes(bytes).hashCode(), byteString.hashCode());
+        for (int i = 0; i < 1000; i++) {
+            final int a = r.nextInt(bytes.length+1);
+            final int b = r.nextInt(bytes.length+1);
+            final int start = Math.min(a, b);
+            final int end = Math.max(a, b);
+            final int expected = hash(bytes, start, end);
+            assertEquals(expected, byteString.substringHash(start, end));
+            assertEquals(expected, byteString.substring(start, end).hashCode());
+        }
+        final byte[] modified = bytes.clone();
+        modified[12345]++;
+        assertFalse(byteString.equals(ByteString.fromBytes(modified)));
+        assertEquals(byteString, ByteString.fromBytes(bytes));
+
+        final byte[] inserted = new byte[bytes.length+300];
+        System.arraycopy(bytes, 0, inserted, 0, 5000);
+        System.arraycopy(bytes, 5000, inserted, 5300, bytes.length-5000);
+        final ByteString edited = byteString.substring(0, 5000).concat(ByteString.fromBytes(new byte[300])).concat(byteString.substring(5000));
+        assertEquals(hash(inserted, 0, inserted.length), edited.hashCode());
+        assertEquals(ByteString.fromBytes(inserted).crc32c(), edited.crc32c());
+        assertEquals(hash(inserted, 4000, 6000), edited.substringHash(4000, 6000));
+        assertEquals(0, ByteString.fromBytes(new byte[300]).hashCode());
+    }
+
+    private static int hash(byte[] bytes, int start, int end) {
+        int ret = 0;
+        for (int i = start; i < end; i++) {
+            ret = ret*31+(bytes[i] & 0xFF);
+        }
+        return ret;
+    }
+
+    public void testMismatch() {
+        final Random r = new Random(0);
+        final byte[] bytes = new byte[5000];
+        r.nextBytes(bytes);
+        final ByteString a = chunked(bytes, r);
+        final ByteString b = chunked(bytes, r);
+        assertEquals(-1, a.mismatch(b));
+        assertEquals(0, a.compareTo(b));
+        assertEquals(a, b);
+        assertEquals(-1, a.mismatch(a.substring(0, 2000).concat(a.substring(2000))));
+        assertEquals(3000, a.mismatch(b.substring(0, 3000)));
+        assertTrue(a.compareTo(b.substring(0, 3000)) > 0);
+        assertTrue(b.substring(0, 3000).compareTo(a) < 0);
+        for (int i = 0; i < 100; i++) {
+            final int index = r.nextInt(bytes.length);
+            final byte[] modified = bytes.clone();
+            modified[index] = (byte) (bytes[index]+1+r.nextInt(255));
+            final ByteString c = chunked(modified, r);
+            assertEquals(index, a.mismatch(c));
+            assertEquals(index, c.mismatch(a));
+            assertFalse(a.equals(c));
+            assertEquals(Integer.signum((bytes[index] & 0xFF) - (modified[index] & 0xFF)), Integer.signum(a.compareTo(c)));
+        }
+    }
+
+    public void testMismatchSharedStructure() {
+        final Random r = new Random(0);
+        final byte[] bytes = new byte[100000];
+        r.nextBytes(bytes);
+        final ByteString a = chunked(bytes, r);
+        for (int i = 0; i < 100; i++) {
+            final int index1 = r.nextInt(bytes.length);
+            final int index2 = r.nextInt(bytes.length);
+            final ByteString b = edit(a, index1, (byte) (bytes[index1]+1));
+            final ByteString c = edit(a, index2, (byte) (bytes[index2]+1));
+            assertEquals(index1, a.mismatch(b));
+            assertEquals(index1, b.mismatch(a));
+            assertEquals(index1 == index2 ? -1 : Math.min(index1, index2), b.mismatch(c));
+            assertEquals(-1, b.mismatch(b.substring(0, index2).concat(b.substring(index2))));
+            assertEquals(index1, b.substring(0, index1).mismatch(a));
+        }
+    }
+
+    private static ByteString edit(ByteString bytes, int index, byte value) {
+        return bytes.substring(0, index).concat(ByteString.fromBytes(new byte[]{value})).concat(bytes.substring(index+1));
+    }
+
+    private static ByteString chunked(byte[] bytes, Random r) {
+        ByteString ret = ByteString.empty();
+        for (int i = 0; i < bytes.length; ) {
+            final int length = Math.min(1+r.nextInt(500), bytes.length-i);
+            ret = ret.concat(ByteString.fromBytes(bytes, i, length));
+            i += length;
+        }
+        return ret;
+    }
+
+    public void testCrc32c() {
+        final Random r = new Random(0);
+        final byte[] bytes = new byte[20000];
+        r.nextBytes(bytes);
+        final ByteString plain = chunked(bytes, r);
+        final ByteString checksummed = plain.withCrc32c();
+        final byte[] check = "123456789".getBytes(Charsets.UTF_8);
+        assertEquals(0xE3069283, crc32c(check, 0, check.length));
+        assertEquals(0xE3069283, ByteString.fromBytes(check).crc32c());
+        assertEquals(crc32c(bytes, 0, bytes.length), plain.crc32c());
+        assertEquals(crc32c(bytes, 0, bytes.length), checksummed.crc32c());
+        assertEquals(plain, checksummed);
+        assertEquals(plain.hashCode(), checksummed.hashCode());
+        for (int i = 0; i < 200; i++) {
+            final int a = r.nextInt(bytes.length+1);
+            final int b = r.nextInt(bytes.length+1);
+            final int start = Math.min(a, b);
+            final int end = Math.max(a, b);
+            final ByteString substring = checksummed.substring(start, end);
+            assertEquals(crc32c(bytes, start, end), substring.crc32c());
+            assertEquals(plain.substring(start, end), substring);
+            final ByteString spliced = substring.concat(plain.substring(0, start)).concat(ByteString.fromBytes(bytes, 0, 10));
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            expected.write(bytes, start, end-start);
+            expected.write(bytes, 0, start);
+            expected.write(bytes, 0, 10);
+            final byte[] expectedBytes = expected.toByteArray();
+            assertEquals(crc32c(expectedBytes, 0, expectedBytes.length), spliced.crc32c());
+            assertEquals(ByteString.fromBytes(expectedBytes), spliced);
+            assertEquals(crc32c(expectedBytes, 0, expectedBytes.length), ByteString.fromBytes(bytes, 0, 10).concat(spliced).substring(10).crc32c());
+        }
+    }
+
+    /**
+     * bitwise reference implementation, java.util.zip.CRC32C needs java 9
+     */
+    private static int crc32c(byte[] bytes, int start, int end) {
+        int crc = ~0;
+        for (int i = start; i < end; i++) {
+            crc ^= bytes[i] & 0xFF;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x82F63B78 : crc >>> 1;
+            }
+        }
+        return ~crc;
+    }
+
+    public void testSearch() throws IOException {
+        final Random r = new Random(0);
+        final byte[] bytes = new byte[5000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) r.nextInt(4);
+        }
+        final ByteString plain = chunked(bytes, r);
+        final ByteString checksummed = plain.withCrc32c();
+        for (int i = 0; i < 300; i++) {
+            final int patternLength = 1+r.nextInt(8);
+            final int patternStart = r.nextInt(bytes.length-patternLength);
+            final byte[] pattern = Arrays.copyOfRange(bytes, patternStart, patternStart+patternLength);
+            final ByteString patternString = chunked(pattern, r);
+            final int from = r.nextInt(bytes.length+10)-5;
+            assertEquals(indexOf(bytes, pattern, from), plain.indexOf(patternString, from));
+            assertEquals(indexOf(bytes, pattern, from), checksummed.indexOf(patternString, from));
+            assertEquals(lastIndexOf(bytes, pattern, from), plain.lastIndexOf(patternString, from));
+            assertEquals(lastIndexOf(bytes, pattern, from), checksummed.lastIndexOf(patternString, from));
+            assertEquals(indexOf(bytes, new byte[]{pattern[0]}, from), plain.indexOf(pattern[0], from));
+            assertEquals(lastIndexOf(bytes, new byte[]{pattern[0]}, from), plain.lastIndexOf(pattern[0], from));
+        }
+        assertTrue(plain.contains(ByteString.fromBytes(Arrays.copyOfRange(bytes, 1000, 1100))));
+        assertEquals(-1, plain.indexOf(ByteString.fromBytes(new byte[]{4})));
+
+        final ByteString delimiter = ByteString.fromBytes(", ".getBytes(Charsets.UTF_8));
+        final ByteString text = ByteString.readLazily(new ByteArrayInputStream(", a, bc, , d, ".getBytes(Charsets.UTF_8)), 3);
+        final StringBuilder pieces = new StringBuilder();
+        for (ByteString piece : text.split(delimiter)) {
+            pieces.append('[').append(new String(piece.toByteArray(), Charsets.UTF_8)).append(']');
+        }
+        assertEquals("[][a][bc][][d][]", pieces.toString());
+    }
+
+    public void testCompaction() {
+        final Random r = new Random(0);
+        final byte[] bytes = new byte[100000];
+        r.nextBytes(bytes);
+        ByteString fragmented = ByteString.empty();
+        for (int i = 0; i < bytes.length; i += 200) {
+            fragmented = fragmented.concat(ByteString.fromBytes(bytes, i, 200));
+        }
+        assertEquals(500, fragmented.chunks().count());
+        final CompactionPolicy policy = new CompactionPolicy(1000, 4000, 4.0);
+        final ByteString compacted = fragmented.compact(policy);
+        assertEquals(fragmented, compacted);
+        assertEquals(25, compacted.chunks().count());
+        assertSame(compacted, compacted.compact(policy));
+        assertEquals(1, ByteString.fromBytes(bytes).substring(10, 20).compact(policy).chunks().count());
+
+        final ByteString big = ByteString.fromBytes(bytes);
+        ByteString spliced = big.withCompaction(policy);
+        for (int i = 0; i < 200; i++) {
+            final int start = r.nextInt(bytes.length-100);
+            spliced = spliced.concat(big.substring(start, start+1+r.nextInt(100)));
+        }
+        assertTrue(spliced.chunks().count() < 10);
+        for (int i = 0; i < 200; i++) {
+            final int a = r.nextInt(spliced.length()+1);
+            final int b = r.nextInt(spliced.length()+1);
+            assertEquals(spliced.substring(Math.min(a, b), Math.max(a, b)), spliced.compact().substring(Math.min(a, b), Math.max(a, b)));
+        }
+    }
+
+    public void testOutput() throws IOException {
+        final Random r = new Random(0);
+        final ChunkPool pool = new ChunkPool(1000, 4);
+        for (int n = 0; n < 3; n++) {
+            final ByteStringOutput out = ByteString.newOutput(pool);
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            for (int i = 0; i < 2000; i++) {
+                final byte[] bytes = new byte[r.nextInt(20)];
+                r.nextBytes(bytes);
+                switch (r.nextInt(3)) {
+                    case 0:
+                        for (byte b : bytes) {
+                            out.write(b);
+                        }
+                        break;
+                    case 1:
+                        out.write(bytes);
+                        break;
+                    default:
+                        assertEquals(bytes.length, out.write(ByteBuffer.wrap(bytes)));
+                }
+                expected.write(bytes);
+            }
+            assertEquals(expected.size(), out.size());
+            final ByteString result = out.toByteString();
+            assertEquals(ByteString.fromBytes(expected.toByteArray()), result);
+            assertEquals((expected.size()+999)/1000, result.chunks().count());
+            assertFalse(out.isOpen());
+            try {
+                out.write(0);
+                fail();
+            } catch (IOException expectedException) {
+            }
+        }
+        final ByteStringOutput out = ByteString.newOutput(pool);
+        out.write(new byte[2500]);
+        out.reset();
+        out.write(ByteString.fromBytes("abc".getBytes(Charsets.UTF_8)));
+        assertEquals("abc", new String(out.toByteString().toByteArray(), Charsets.UTF_8));
+        assertEquals(0, ByteString.newOutput().toByteString().length());
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern, int from) {
+        for (int i = Math.max(from, 0); i+pattern.length <= bytes.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i+pattern.length), pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte[] pattern, int from) {
+        for (int i = Math.min(from, bytes.length-pattern.length); i >= 0; i--) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i+pattern.length), pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
 }
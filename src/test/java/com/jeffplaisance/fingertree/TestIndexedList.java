@@ -23,6 +23,9 @@ import junit.framework.TestCase;
 
 import java.util.List;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class TestIndexedList extends TestCase {
     public void testStuff() {
@@ -42,4 +45,96 @@ public class TestIndexedList extends TestCase {
         final int length = r.nextInt(list.size()-start);
         assertTrue(Iterables.elementsEqual(list.subList(start, start + length), iList.subList(start, start + length)));
     }
+
+    public void testNewList() {
+        for (int size = 0; size < 200; size++) {
+            final List<Integer> list = Lists.newArrayList();
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+            final IndexedList<Integer> iList = IndexedList.newList(list);
+            assertEquals(size, iList.size());
+            assertTrue(Iterables.elementsEqual(list, iList));
+            for (int i = 0; i < size; i++) {
+                assertEquals(list.get(i), iList.get(i));
+            }
+            IndexedList<Integer> removed = iList;
+            for (int i = 0; i < size; i++) {
+                assertEquals(list.get(i), removed.first());
+                removed = removed.removeFirst();
+            }
+            assertTrue(removed.isEmpty());
+            assertTrue(Iterables.elementsEqual(Iterables.concat(list, list), IndexedList.newList(list).concat(iList)));
+            assertTrue(Iterables.elementsEqual(list, IndexedList.newList(list.toArray(new Integer[size]))));
+        }
+    }
+
+    public void testConcat() {
+        for (int a = 0; a < 40; a++) {
+            for (int b = 0; b < 40; b++) {
+                final List<Integer> list = Lists.newArrayList();
+                IndexedList<Integer> left = IndexedList.empty();
+                IndexedList<Integer> right = IndexedList.empty();
+                for (int i = 0; i < a; i++) {
+                    list.add(i);
+                    left = left.add(i);
+                }
+                for (int i = 0; i < b; i++) {
+                    list.add(a+i);
+                    right = right.add(a+i);
+                }
+                final IndexedList<Integer> concat = left.concat(right);
+                assertEquals(a+b, concat.size());
+                assertTrue(Iterables.elementsEqual(list, concat));
+            }
+        }
+    }
+
+    public void testAddAll() {
+        final List<Integer> list = Lists.newArrayList();
+        for (int i = 0; i < 10000; i++) {
+            list.add(i);
+        }
+        final IndexedList<Integer> iList = IndexedList.newList(list.subList(0, 100)).addAll(list.subList(100, list.size()));
+        assertTrue(Iterables.elementsEqual(list, iList));
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(list.get(i), iList.get(i));
+        }
+    }
+
+    public void testSpliterator() {
+        for (int size = 0; size < 2000; size = size*2+1) {
+            final List<Integer> list = Lists.newArrayList();
+            IndexedList<Integer> iList = IndexedList.empty();
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+                iList = iList.add(i);
+            }
+            final List<Integer> collected = Lists.newArrayList();
+            split(iList.spliterator(), collected);
+            assertEquals(list, collected);
+            assertEquals(list, iList.parallelStream().collect(Collectors.toList()));
+            assertEquals(list, IndexedList.newList(list).stream().collect(Collectors.toList()));
+        }
+    }
+
+    private static void split(Spliterator<Integer> spliterator, final List<Integer> out) {
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        final long size = spliterator.estimateSize();
+        final Spliterator<Integer> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            final int start = out.size();
+            while (spliterator.tryAdvance(new Consumer<Integer>() {
+                @Override
+                public void accept(Integer integer) {
+                    out.add(integer);
+                }
+            }));
+            assertEquals(size, out.size()-start);
+        } else {
+            assertEquals(size, prefix.estimateSize()+spliterator.estimateSize());
+            split(prefix, out);
+            split(spliterator, out);
+        }
+    }
 }
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2013 Jeff Plaisance
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jeffplaisance.fingertree;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.jeffplaisance.util.fingertree.rope.ParallelRopeSearch;
+import com.jeffplaisance.util.fingertree.rope.Rope;
+import com.jeffplaisance.util.fingertree.rope.TextMetrics;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class TestRope extends TestCase {
+    public void testChars() {
+        final Random r = new Random(0);
+        final StringBuilder builder = new StringBuilder();
+        Rope rope = Rope.empty();
+        for (int i = 0; i < 1000; i++) {
+            final StringBuilder chunk = new StringBuilder();
+            final int length = r.nextInt(100);
+            for (int j = 0; j < length; j++) {
+                chunk.append((char) ('a' + r.nextInt(26)));
+            }
+            builder.append(chunk);
+            rope = rope.append(chunk.toString());
+        }
+        final String str = builder.toString();
+        assertEquals(str.length(), rope.chars().count());
+        assertEquals(str.chars().sum(), rope.chars().parallel().sum());
+        final int[] chars = rope.chars().parallel().toArray();
+        assertEquals(str, new String(chars, 0, chars.length));
+    }
+
+    public void testCompare() {
+        final Random r = new Random(0);
+        final char[] chars = new char[5000];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + r.nextInt(26));
+        }
+        final String str = new String(chars);
+        final Rope a = chunked(str, r);
+        final Rope b = chunked(str, r);
+        assertEquals(-1, a.mismatch(b));
+        assertEquals(0, a.compareTo(b));
+        assertEquals(a, b);
+        assertEquals(3000, a.mismatch(b.substring(0, 3000)));
+        assertTrue(a.compareTo(b.substring(0, 3000)) > 0);
+        for (int i = 0; i < 100; i++) {
+            final int index = r.nextInt(chars.length);
+            final char[] modified = chars.clone();
+            modified[index] = (char) ('a' + r.nextInt(26));
+            final String modifiedStr = new String(modified);
+            final Rope c = chunked(modifiedStr, r);
+            assertEquals(modified[index] == chars[index] ? -1 : index, a.mismatch(c));
+            assertEquals(modified[index] == chars[index], a.equals(c));
+            assertEquals(Integer.signum(str.compareTo(modifiedStr)), Integer.signum(a.compareTo(c)));
+        }
+    }
+
+    public void testCompareSharedStructure() {
+        final Random r = new Random(0);
+        final char[] chars = new char[100000];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + r.nextInt(26));
+        }
+        final Rope a = chunked(new String(chars), r);
+        for (int i = 0; i < 100; i++) {
+            final int index1 = r.nextInt(chars.length);
+            final int index2 = r.nextInt(chars.length);
+            final Rope b = a.replace(index1, index1+1, "A");
+            final Rope c = a.replace(index2, index2+1, "A");
+            assertEquals(index1, a.mismatch(b));
+            assertEquals(index1, b.mismatch(a));
+            assertEquals(index1 == index2 ? -1 : Math.min(index1, index2), b.mismatch(c));
+            assertEquals(-1, b.mismatch(b.substring(0, index2).concat(b.substring(index2, b.length()))));
+            assertEquals(index1, b.substring(0, index1).mismatch(a));
+        }
+    }
+
+    public void testMetrics() {
+        final Random r = new Random(0);
+        final String[] pieces = {"a", "b", "\n", "\u00e9", "\u4e2d", "\ud83d\ude00", "\r\n"};
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append(pieces[r.nextInt(pieces.length)]);
+        }
+        final String str = builder.toString();
+        final Rope rope = chunked(str, r);
+        assertEquals(str.codePointCount(0, str.length()), rope.metrics().getCodePoints());
+        assertEquals(str.getBytes(Charsets.UTF_8).length, rope.metrics().getUtf8Length());
+        final String[] lines = str.split("\n", -1);
+        assertEquals(lines.length, rope.lineCount());
+        int lineStart = 0;
+        for (int line = 0; line < lines.length; line++) {
+            assertEquals(lineStart, rope.lineStart(line));
+            assertEquals(line, rope.lineOf(lineStart));
+            lineStart += lines[line].length()+1;
+        }
+        for (int i = 0; i < 500; i++) {
+            final int codePoint = r.nextInt(rope.metrics().getCodePoints()+1);
+            final int offset = str.offsetByCodePoints(0, codePoint);
+            assertEquals(offset, rope.offsetOfCodePoint(codePoint));
+            assertEquals(str.substring(0, offset).getBytes(Charsets.UTF_8).length, rope.utf8Offset(offset));
+            assertEquals(str.substring(0, offset).split("\n", -1).length-1, rope.lineOf(offset));
+        }
+        final Rope single = Rope.fromString(str);
+        for (int i = 0; i < 500; i++) {
+            final int a = r.nextInt(str.length()+1);
+            final int b = r.nextInt(str.length()+1);
+            final String substring = str.substring(Math.min(a, b), Math.max(a, b));
+            assertEquals(TextMetrics.of(substring), single.subSequence(Math.min(a, b), Math.max(a, b)).metrics());
+        }
+
+        final String large = Strings.repeat(str, 20);
+        final Rope bounded = Rope.fromString(large).insert(large.length()/2, str);
+        final String edited = new StringBuilder(large).insert(large.length()/2, str).toString();
+        assertEquals(edited, bounded.toString());
+        for (String chunk : bounded.chunks().collect(Collectors.toList())) {
+            assertTrue(chunk.length() <= 4096);
+            assertFalse(Character.isHighSurrogate(chunk.charAt(chunk.length()-1)));
+        }
+        for (int i = 0; i < 500; i++) {
+            final int offset = edited.offsetByCodePoints(0, r.nextInt(edited.codePointCount(0, edited.length())+1));
+            assertEquals(edited.substring(0, offset).getBytes(Charsets.UTF_8).length, bounded.utf8Offset(offset));
+            final int line = bounded.lineOf(offset);
+            assertEquals(edited.substring(0, offset).split("\n", -1).length-1, line);
+            assertEquals(edited.lastIndexOf('\n', offset-1)+1, bounded.lineStart(line));
+        }
+    }
+
+    public void testEdit() {
+        final Random r = new Random(0);
+        final StringBuilder expected = new StringBuilder();
+        Rope rope = Rope.empty();
+        for (int i = 0; i < 3000; i++) {
+            final int start = r.nextInt(expected.length()+1);
+            final int end = start+r.nextInt(Math.min(expected.length()-start, 20)+1);
+            final StringBuilder text = new StringBuilder();
+            final int length = r.nextInt(r.nextInt(10) == 0 ? 300 : 10);
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + r.nextInt(26)));
+            }
+            switch (r.nextInt(4)) {
+                case 0:
+                    rope = rope.insert(start, text);
+                    expected.insert(start, text);
+                    break;
+                case 1:
+                    rope = rope.delete(start, end);
+                    expected.delete(start, end);
+                    break;
+                case 2:
+                    rope = rope.replace(start, end, chunked(text.toString(), r));
+                    expected.replace(start, end, text.toString());
+                    break;
+                default:
+                    rope = rope.replace(start, end, text);
+                    expected.replace(start, end, text.toString());
+            }
+            assertEquals(expected.length(), rope.length());
+        }
+        assertEquals(expected.toString(), rope.chunks().collect(Collectors.joining()));
+        assertTrue(rope.chunks().count() < expected.length()/20);
+
+        Rope typed = Rope.fromString(Strings.repeat("a", 2000));
+        for (int i = 0; i < 500; i++) {
+            typed = typed.insert(1000+i, "b");
+        }
+        assertEquals(Strings.repeat("a", 1000)+Strings.repeat("b", 500)+Strings.repeat("a", 1000), typed.toString());
+        for (String chunk : typed.chunks().collect(Collectors.toList())) {
+            assertTrue(chunk.length() <= 1000);
+        }
+    }
+
+    public void testRegex() throws Exception {
+        final Random r = new Random(0);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append(r.nextInt(5) == 0 ? " " : String.valueOf((char) ('a' + r.nextInt(4))));
+        }
+        final String str = builder.toString();
+        final Rope rope = chunked(str, r);
+        assertEquals(str, rope.toString());
+        final Pattern pattern = Pattern.compile("a[bc]+d");
+        final List<String> expected = new ArrayList<String>();
+        final Matcher strMatcher = pattern.matcher(str);
+        while (strMatcher.find()) {
+            expected.add(strMatcher.start() + ":" + strMatcher.group());
+        }
+        assertFalse(expected.isEmpty());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+        for (int i = 0; i < 4; i++) {
+            final CharSequence input = i%2 == 0 ? rope : rope.view();
+            futures.add(executor.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() {
+                    final List<String> ret = new ArrayList<String>();
+                    final Matcher matcher = pattern.matcher(input);
+                    while (matcher.find()) {
+                        ret.add(matcher.start() + ":" + matcher.group());
+                    }
+                    return ret;
+                }
+            }));
+        }
+        for (Future<List<String>> future : futures) {
+            assertEquals(expected, future.get());
+        }
+        executor.shutdown();
+    }
+
+    public void testParallelSearch() {
+        final Random r = new Random(0);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append(r.nextInt(10) == 0 ? "\n" : String.valueOf((char) ('a' + r.nextInt(3))));
+        }
+        final String str = builder.toString();
+        final Rope rope = chunked(str, r);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final ParallelRopeSearch search = new ParallelRopeSearch(pool, 500, 4);
+        final String[] patterns = {"ab+c", "[ab]+", "(?<=c)a+", "b*", "(?m)^a.*$", "c[^\n]{20,}"};
+        for (String regex : patterns) {
+            final Pattern pattern = Pattern.compile(regex);
+            final List<String> expected = new ArrayList<String>();
+            final Matcher matcher = pattern.matcher(str);
+            while (matcher.find()) {
+                expected.add(matcher.start() + "-" + matcher.end() + ":" + matcher.group());
+            }
+            final List<String> actual = new ArrayList<String>();
+            for (MatchResult match : rope.findAll(search, pattern)) {
+                actual.add(match.start() + "-" + match.end() + ":" + match.group());
+            }
+            assertEquals(regex, expected, actual);
+        }
+        for (int i = 0; i < 100; i++) {
+            final int start = r.nextInt(str.length()-10);
+            final String target = str.substring(start, start+1+r.nextInt(10));
+            assertEquals(str.indexOf(target), rope.indexOf(search, target));
+        }
+        assertEquals(-1, rope.indexOf(search, "abcabcabcabcabc"));
+        assertEquals(str.indexOf("abcab"), rope.indexOf("abcab"));
+
+        final Rope spanning = Rope.fromString("xx"+Strings.repeat("a", 1000)+"yy");
+        for (String regex : new String[]{"a+", "a*"}) {
+            final Pattern pattern = Pattern.compile(regex);
+            final List<String> expected = new ArrayList<String>();
+            final Matcher matcher = pattern.matcher(spanning.toString());
+            while (matcher.find()) {
+                expected.add(matcher.start() + "-" + matcher.end());
+            }
+            final List<String> actual = new ArrayList<String>();
+            for (MatchResult match : spanning.findAll(new ParallelRopeSearch(pool, 100, 10), pattern)) {
+                actual.add(match.start() + "-" + match.end());
+            }
+            assertEquals(regex, expected, actual);
+        }
+
+        for (Rope empty : new Rope[]{Rope.empty(), Rope.fromString(""), rope.delete(0, rope.length())}) {
+            final List<String> actual = new ArrayList<String>();
+            for (MatchResult match : empty.findAll(search, Pattern.compile("a*"))) {
+                actual.add(match.start() + "-" + match.end());
+            }
+            assertEquals(Arrays.asList("0-0"), actual);
+            assertTrue(empty.findAll(search, Pattern.compile("x")).isEmpty());
+            assertEquals(-1, empty.indexOf(search, "x"));
+        }
+        assertEquals("", rope.subSequence(str.length(), str.length()).toString());
+        pool.shutdown();
+    }
+
+    public void testCompact() {
+        final Random r = new Random(0);
+        final String[] pieces = {"a", "b", "c", "\n", "\u00e9", "\u4e2d", "\ud83d\ude00", "\ud800", "\udc00"};
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append(r.nextInt(50) == 0 ? pieces[r.nextInt(pieces.length)] : "x");
+        }
+        final String str = builder.toString();
+        final Rope plain = chunked(str, r);
+        final Rope compact = Rope.fromStringCompact(str, 100);
+        assertEquals(str, compact.toString());
+        assertEquals(plain, compact);
+        assertEquals(plain.hashCode(), compact.hashCode());
+        assertEquals(plain.metrics(), compact.metrics());
+        assertEquals(plain.metrics(), plain.compact().metrics());
+        for (int i = 0; i < 1000; i++) {
+            final int index = r.nextInt(str.length());
+            assertEquals(str.charAt(index), compact.charAt(index));
+            assertEquals(plain.utf8Offset(index), compact.utf8Offset(index));
+        }
+        for (int line = 0; line < plain.lineCount(); line++) {
+            assertEquals(plain.lineStart(line), compact.lineStart(line));
+        }
+        assertEquals(str.chars().sum(), compact.chars().sum());
+        StringBuilder expected = new StringBuilder(str);
+        Rope edited = compact;
+        for (int i = 0; i < 500; i++) {
+            final int start = r.nextInt(expected.length()+1);
+            final int end = start+r.nextInt(Math.min(expected.length()-start, 50)+1);
+            final String text = pieces[r.nextInt(pieces.length)] + "yz";
+            edited = edited.replace(start, end, text);
+            expected.replace(start, end, text);
+        }
+        assertEquals(expected.toString(), edited.toString());
+        assertEquals(Rope.fromString(expected.toString()).metrics(), edited.metrics());
+        assertEquals(expected.substring(1000, 5000), edited.subSequence(1000, 5000).toString());
+
+        Rope typed = Rope.fromStringCompact(str, 100);
+        for (int i = 0; i < 2000; i++) {
+            typed = typed.insert(5000+i, "y");
+        }
+        typed = typed.insert(100, Strings.repeat("z", 1000)).append(Strings.repeat("w", 500));
+        assertEquals(str.substring(0, 100)+Strings.repeat("z", 1000)+str.substring(100, 5000)+Strings.repeat("y", 2000)+str.substring(5000)+Strings.repeat("w", 500), typed.toString());
+        for (String chunk : typed.chunks().collect(Collectors.toList())) {
+            assertTrue(chunk.length() <= 100);
+        }
+    }
+
+    private static Rope chunked(String str, Random r) {
+        Rope ret = Rope.empty();
+        for (int i = 0; i < str.length(); ) {
+            final int length = Math.min(1+r.nextInt(200), str.length()-i);
+            ret = ret.append(str.substring(i, i+length));
+            i += length;
+        }
+        return ret;
+    }
+}